@@ -0,0 +1,246 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the pixel converters of {@link ResourceAPI} with the per pixel implementation they replaced, which
+ * called {@code getRGB(x, y)}, wrapped every pixel in a {@link Color} and searched the palette by Lab distance.
+ * Covers blit and rgb-int/rgb-table pixel tables and the blit string at 16x16, 64x64 and 512x512, on 4BYTE_ABGR
+ * images as decoded from png textures. Run with {@code ./gradlew benchImageConverters}.
+ */
+public class ImageConverterBenchmark {
+    private static final int[] SIZES = {16, 64, 512};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    // a round repeats the conversion until it took at least this long
+    private static final long MIN_ROUND_NANOS = 100_000_000L;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-18s %9s %14s %14s %8s %8s%n", "converter", "size", "per pixel", "bulk", "speedup", "same");
+        for (int size : SIZES) {
+            BufferedImage image = createImage(size);
+            run("blit pixels", size, () -> PerPixel.toPixels(image, ResourceAPI.COMPUTECRAFT_PALETTE_BLIT),
+                    () -> ResourceAPI.imageToPixels(image, "blit"));
+            run("rgb-int pixels", size, () -> PerPixel.toPixelsRGB(image),
+                    () -> ResourceAPI.imageToPixels(image, "rgb-int"));
+            run("rgb-table pixels", size, () -> PerPixel.toPixelsRGBTable(image),
+                    () -> ResourceAPI.imageToPixels(image, "rgb-table"));
+            run("blit string", size, () -> PerPixel.toCCString(image, ResourceAPI.COMPUTECRAFT_PALETTE_BLIT),
+                    () -> ResourceAPI.imageToCCString(image));
+        }
+    }
+
+    private static void run(String converter, int size, Conversion perPixel, Conversion bulk) throws Exception {
+        double same = agreement(perPixel.convert(), bulk.convert());
+        double perPixelNanos = measure(perPixel);
+        double bulkNanos = measure(bulk);
+        System.out.printf("%-18s %9s %11.1f us %11.1f us %7.1fx %7.2f%%%n", converter, size + "x" + size,
+                perPixelNanos / 1000, bulkNanos / 1000, perPixelNanos / bulkNanos, same * 100);
+    }
+
+    /**
+     * @return median nanoseconds per conversion over the timed rounds
+     */
+    private static double measure(Conversion conversion) throws Exception {
+        int repeats = 1;
+        while (true) {
+            long start = System.nanoTime();
+            for (int i = 0; i < repeats; i++) {
+                sink = conversion.convert();
+            }
+            if (System.nanoTime() - start >= MIN_ROUND_NANOS / 4)
+                break;
+            repeats *= 2;
+        }
+        repeats *= 4;
+
+        long[] times = new long[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < repeats; i++) {
+                sink = conversion.convert();
+            }
+            if (round >= 0)
+                times[round] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return (double) times[ROUNDS / 2] / repeats;
+    }
+
+    /**
+     * @return share of pixels both converters agree on, the built in palettes are matched through a 5 bit per channel
+     * table so a few colors close to the middle of two palette entries can differ
+     */
+    @SuppressWarnings("unchecked")
+    private static double agreement(Object expected, Object actual) {
+        if (expected instanceof String) {
+            String a = (String) expected;
+            String b = (String) actual;
+            if (a.length() != b.length())
+                return 0;
+            int same = 0;
+            for (int i = 0; i < a.length(); i++) {
+                if (a.charAt(i) == b.charAt(i))
+                    same++;
+            }
+            return (double) same / a.length();
+        }
+
+        Map<Integer, Map<Integer, Object>> a = (Map<Integer, Map<Integer, Object>>) expected;
+        Map<Integer, Map<Integer, Object>> b = (Map<Integer, Map<Integer, Object>>) actual;
+        int same = 0;
+        int total = 0;
+        for (Map.Entry<Integer, Map<Integer, Object>> row : a.entrySet()) {
+            for (Map.Entry<Integer, Object> pixel : row.getValue().entrySet()) {
+                total++;
+                Map<Integer, Object> otherRow = b.get(row.getKey());
+                if (otherRow != null && pixel.getValue().equals(otherRow.get(pixel.getKey())))
+                    same++;
+            }
+        }
+        return total > 0 ? (double) same / total : 0;
+    }
+
+    private static BufferedImage createImage(int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_4BYTE_ABGR);
+        Random random = new Random(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private interface Conversion {
+        Object convert() throws Exception;
+    }
+
+    /**
+     * The converters as they were before reading pixels in bulk, including the Lab conversion they used.
+     */
+    private static class PerPixel {
+        private static final double REF_X = 95.047;
+        private static final double REF_Y = 100.0;
+        private static final double REF_Z = 108.883;
+
+        static Map<Integer, Map<Integer, Object>> toPixels(BufferedImage image, Map<Object, Color> colorMap) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
+
+            for (int y = 0; y < height; y++) {
+                Map<Integer, Object> row = new HashMap<>();
+                for (int x = 0; x < width; x++) {
+                    Color color = new Color(image.getRGB(x, y), true);
+                    row.put(x + 1, findClosestCCColor(color, colorMap));
+                }
+                pixels.put(y + 1, row);
+            }
+            return pixels;
+        }
+
+        static Map<Integer, Map<Integer, Object>> toPixelsRGB(BufferedImage image) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
+
+            for (int y = 0; y < height; y++) {
+                Map<Integer, Object> row = new HashMap<>();
+                for (int x = 0; x < width; x++) {
+                    Color color = new Color(image.getRGB(x, y), true);
+                    row.put(x + 1, color.getRGB());
+                }
+                pixels.put(y + 1, row);
+            }
+            return pixels;
+        }
+
+        static Map<Integer, Map<Integer, Object>> toPixelsRGBTable(BufferedImage image) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
+
+            for (int y = 0; y < height; y++) {
+                Map<Integer, Object> row = new HashMap<>();
+                for (int x = 0; x < width; x++) {
+                    Color color = new Color(image.getRGB(x, y), true);
+                    row.put(x + 1, new HashMap<String, Object>() {{
+                        put("r", color.getRed());
+                        put("g", color.getGreen());
+                        put("b", color.getBlue());
+                        put("a", color.getAlpha());
+                    }});
+                }
+                pixels.put(y + 1, row);
+            }
+            return pixels;
+        }
+
+        static String toCCString(BufferedImage image, Map<Object, Color> colorMap) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            StringBuilder ccImageBuilder = new StringBuilder();
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    Color color = new Color(image.getRGB(x, y), true);
+                    ccImageBuilder.append(findClosestCCColor(color, colorMap));
+                }
+                if (y < height - 1)
+                    ccImageBuilder.append("\n");
+            }
+            return ccImageBuilder.toString();
+        }
+
+        private static Object findClosestCCColor(Color color, Map<Object, Color> colorMap) {
+            Enumeration<Map.Entry<Object, Color>> entries = Collections.enumeration(colorMap.entrySet());
+            Map.Entry<Object, Color> firstEntry = entries.nextElement();
+            Object closestColorKey = firstEntry.getKey();
+            double closestDistance = rgbDistance(color, firstEntry.getValue());
+            while (entries.hasMoreElements()) {
+                Map.Entry<Object, Color> currentEntry = entries.nextElement();
+                double distance = rgbDistance(color, currentEntry.getValue());
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closestColorKey = currentEntry.getKey();
+                }
+            }
+            return closestColorKey;
+        }
+
+        private static double rgbDistance(Color a, Color b) {
+            double[] labA = rgbToLab(a);
+            double[] labB = rgbToLab(b);
+            return Math.sqrt(Math.pow(labA[0] - labB[0], 2) + Math.pow(labA[1] - labB[1], 2) + Math.pow(labA[2] - labB[2], 2));
+        }
+
+        private static double[] rgbToLab(Color color) {
+            double r = linear(color.getRed() / 255.0);
+            double g = linear(color.getGreen() / 255.0);
+            double b = linear(color.getBlue() / 255.0);
+
+            double x = labF((r * 0.4124 + g * 0.3576 + b * 0.1805) * 100 / REF_X);
+            double y = labF((r * 0.2126 + g * 0.7152 + b * 0.0722) * 100 / REF_Y);
+            double z = labF((r * 0.0193 + g * 0.1192 + b * 0.9505) * 100 / REF_Z);
+            return new double[]{116 * y - 16, 500 * (x - y), 200 * (y - z)};
+        }
+
+        private static double linear(double channel) {
+            return channel > 0.04045 ? Math.pow((channel + 0.055) / 1.055, 2.4) : channel / 12.92;
+        }
+
+        private static double labF(double value) {
+            return value > 0.008856 ? Math.pow(value, 1.0 / 3.0) : 7.787 * value + 16.0 / 116.0;
+        }
+    }
+}
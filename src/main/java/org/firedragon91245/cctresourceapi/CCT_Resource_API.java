@@ -3,32 +3,72 @@ package org.firedragon91245.cctresourceapi;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import dan200.computercraft.api.ComputerCraftAPI;
+import net.minecraft.resources.IResourceManagerReloadListener;
 import net.minecraft.util.math.vector.Vector3f;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.event.server.FMLServerAboutToStartEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.firedragon91245.cctresourceapi.cct.AssetIndex;
+import org.firedragon91245.cctresourceapi.cct.ModJarIndex;
+import org.firedragon91245.cctresourceapi.cct.ModJarPool;
+import org.firedragon91245.cctresourceapi.cct.ModelInfoCache;
+import org.firedragon91245.cctresourceapi.cct.RecipeIndex;
+import org.firedragon91245.cctresourceapi.cct.RegistryIdIndex;
+import org.firedragon91245.cctresourceapi.entity.AnimationFrame;
 import org.firedragon91245.cctresourceapi.entity.BlockStateModel;
 import org.firedragon91245.cctresourceapi.entity.BlockStateModelVariant;
 import org.firedragon91245.cctresourceapi.cct.ResourceAPI;
-import org.firedragon91245.cctresourceapi.json.BlockStateModelSerializer;
-import org.firedragon91245.cctresourceapi.json.BlockStateModelVariantSerializer;
-import org.firedragon91245.cctresourceapi.json.OneOrMoreSerializer;
-import org.firedragon91245.cctresourceapi.json.Vector3fSerializer;
+import org.firedragon91245.cctresourceapi.json.AnimationFrameTypeAdapter;
+import org.firedragon91245.cctresourceapi.json.BlockStateModelTypeAdapter;
+import org.firedragon91245.cctresourceapi.json.BlockStateModelVariantTypeAdapter;
+import org.firedragon91245.cctresourceapi.json.OneOrMoreTypeAdapter;
+import org.firedragon91245.cctresourceapi.json.Vector3fTypeAdapter;
 
-@Mod("cct_resource_api")
+@Mod(CCT_Resource_API.MOD_ID)
 public class CCT_Resource_API {
 
+    public static final String MOD_ID = "cct_resource_api";
+
     public static final Logger LOGGER = LogManager.getLogger();
     public static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(BlockStateModelVariant.class, new BlockStateModelVariantSerializer())
-            .registerTypeAdapter(OneOrMore.class, new OneOrMoreSerializer())
-            .registerTypeAdapter(BlockStateModel.class, new BlockStateModelSerializer())
-            .registerTypeAdapter(Vector3f.class, new Vector3fSerializer())
+            .registerTypeAdapter(BlockStateModelVariant.class, new BlockStateModelVariantTypeAdapter())
+            .registerTypeAdapterFactory(OneOrMoreTypeAdapter.FACTORY)
+            .registerTypeAdapter(BlockStateModel.class, new BlockStateModelTypeAdapter())
+            .registerTypeAdapter(Vector3f.class, new Vector3fTypeAdapter())
+            .registerTypeAdapter(AnimationFrame.class, new AnimationFrameTypeAdapter())
             .create();
 
     public CCT_Resource_API() {
 
+        ModLoadingContext.get().registerConfig(ModConfig.Type.COMMON, Config.SPEC);
+        MinecraftForge.EVENT_BUS.addListener(this::onAddReloadListener);
+        MinecraftForge.EVENT_BUS.addListener(this::onServerAboutToStart);
+        MinecraftForge.EVENT_BUS.addListener(this::onServerStopped);
+
         ComputerCraftAPI.registerAPIFactory(new ResourceAPI.Factory());
 
     }
+
+    private void onAddReloadListener(AddReloadListenerEvent event) {
+        event.addListener((IResourceManagerReloadListener) resourceManager -> ModelInfoCache.invalidateAll());
+        event.addListener((IResourceManagerReloadListener) resourceManager -> RecipeIndex.invalidate());
+    }
+
+    private void onServerAboutToStart(FMLServerAboutToStartEvent event) {
+        ModJarIndex.build();
+        AssetIndex.build();
+        RegistryIdIndex.buildAll();
+        RecipeIndex.build(event.getServer());
+    }
+
+    private void onServerStopped(FMLServerStoppedEvent event) {
+        ModJarPool.closeAll();
+        RecipeIndex.invalidate();
+    }
 }
@@ -1,5 +1,6 @@
 package org.firedragon91245.cctresourceapi;
 
+import javax.annotation.Nullable;
 import java.awt.*;
 
 public class ColorUtil {
@@ -8,62 +9,222 @@ public class ColorUtil {
     private static final double REF_Y = 100.0;
     private static final double REF_Z = 108.883;
 
-    public static double rgbDistance(Color a, Color b) {
-        double[] labA = rgbToLab(a);
-        double[] labB = rgbToLab(b);
-        return calculateLabDistance(labA, labB);
+    // sRGB channel value to linear light, scaled to 0-100
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    private static final double POW25_7 = 6103515625.0; // 25^7
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = ((c > 0.04045) ? Math.pow((c + 0.055) / 1.055, 2.4) : c / 12.92) * 100;
+        }
     }
 
-    private static double[] rgbToLab(Color color) {
-        int r = color.getRed();
-        int g = color.getGreen();
-        int b = color.getBlue();
+    /**
+     * Color distance metrics. Colors are first converted to three coordinates with {@link #toCoordinates},
+     * distances between coordinates are compared squared.
+     */
+    public enum Metric {
+        /**
+         * Euclidean distance in Lab (CIE76)
+         */
+        LAB_DE76("lab") {
+            @Override
+            public void toCoordinates(int rgb, double[] out, int offset) {
+                rgbToLab(rgb, out, offset);
+            }
+
+            @Override
+            public double distanceSquared(double[] a, int aOffset, double[] b, int bOffset) {
+                double dL = a[aOffset] - b[bOffset];
+                double da = a[aOffset + 1] - b[bOffset + 1];
+                double db = a[aOffset + 2] - b[bOffset + 2];
+                return dL * dL + da * da + db * db;
+            }
+
+            @Override
+            public double axisLowerBound(int axis, double difference) {
+                return difference * difference;
+            }
+        },
+        CIEDE2000("ciede2000") {
+            @Override
+            public void toCoordinates(int rgb, double[] out, int offset) {
+                rgbToLab(rgb, out, offset);
+            }
+
+            @Override
+            public double distanceSquared(double[] a, int aOffset, double[] b, int bOffset) {
+                return ciede2000Squared(a[aOffset], a[aOffset + 1], a[aOffset + 2], b[bOffset], b[bOffset + 1], b[bOffset + 2]);
+            }
+
+            @Override
+            public double axisLowerBound(int axis, double difference) {
+                // no usable bound from a single Lab axis
+                return 0;
+            }
+        },
+        /**
+         * Red mean weighted euclidean distance in sRGB
+         */
+        WEIGHTED_RGB("rgb") {
+            @Override
+            public void toCoordinates(int rgb, double[] out, int offset) {
+                out[offset] = rgb >> 16 & 0xFF;
+                out[offset + 1] = rgb >> 8 & 0xFF;
+                out[offset + 2] = rgb & 0xFF;
+            }
+
+            @Override
+            public double distanceSquared(double[] a, int aOffset, double[] b, int bOffset) {
+                double redMean = (a[aOffset] + b[bOffset]) / 2;
+                double dr = a[aOffset] - b[bOffset];
+                double dg = a[aOffset + 1] - b[bOffset + 1];
+                double db = a[aOffset + 2] - b[bOffset + 2];
+                return (2 + redMean / 256) * dr * dr + 4 * dg * dg + (2 + (255 - redMean) / 256) * db * db;
+            }
+
+            @Override
+            public double axisLowerBound(int axis, double difference) {
+                // the red and blue weights never drop below 2
+                return (axis == 1 ? 4 : 2) * difference * difference;
+            }
+        };
+
+        public final String luaName;
+
+        Metric(String luaName) {
+            this.luaName = luaName;
+        }
 
-        // Convert RGB to XYZ
-        double[] xyz = rgbToXYZ(r, g, b);
+        public abstract void toCoordinates(int rgb, double[] out, int offset);
 
-        // Convert XYZ to Lab
-        return xyzToLab(xyz[0], xyz[1], xyz[2]);
+        public abstract double distanceSquared(double[] a, int aOffset, double[] b, int bOffset);
+
+        /**
+         * @return a lower bound of {@link #distanceSquared} for two colors whose coordinates differ by
+         * {@code difference} on the given axis
+         */
+        public abstract double axisLowerBound(int axis, double difference);
+
+        @Nullable
+        public static Metric byName(String name) {
+            for (Metric metric : values()) {
+                if (metric.luaName.equals(name))
+                    return metric;
+            }
+            return null;
+        }
     }
 
-    private static double[] rgbToXYZ(int r, int g, int b) {
-        // Normalize RGB values to the range 0-1
-        double R = r / 255.0;
-        double G = g / 255.0;
-        double B = b / 255.0;
+    public static double rgbDistance(Color a, Color b) {
+        double[] labs = new double[6];
+        rgbToLab(a.getRGB(), labs, 0);
+        rgbToLab(b.getRGB(), labs, 3);
+        return Math.sqrt(Metric.LAB_DE76.distanceSquared(labs, 0, labs, 3));
+    }
 
-        // Apply gamma correction
-        R = (R > 0.04045) ? Math.pow((R + 0.055) / 1.055, 2.4) : R / 12.92;
-        G = (G > 0.04045) ? Math.pow((G + 0.055) / 1.055, 2.4) : G / 12.92;
-        B = (B > 0.04045) ? Math.pow((B + 0.055) / 1.055, 2.4) : B / 12.92;
+    /**
+     * Converts a packed (A)RGB color to Lab, alpha is ignored.
+     */
+    public static void rgbToLab(int rgb, double[] out, int offset) {
+        double r = SRGB_TO_LINEAR[rgb >> 16 & 0xFF];
+        double g = SRGB_TO_LINEAR[rgb >> 8 & 0xFF];
+        double b = SRGB_TO_LINEAR[rgb & 0xFF];
 
-        // Convert to XYZ
-        double X = (R * 0.4124 + G * 0.3576 + B * 0.1805) * 100;
-        double Y = (R * 0.2126 + G * 0.7152 + B * 0.0722) * 100;
-        double Z = (R * 0.0193 + G * 0.1192 + B * 0.9505) * 100;
+        double x = labF((r * 0.4124 + g * 0.3576 + b * 0.1805) / REF_X);
+        double y = labF((r * 0.2126 + g * 0.7152 + b * 0.0722) / REF_Y);
+        double z = labF((r * 0.0193 + g * 0.1192 + b * 0.9505) / REF_Z);
 
-        return new double[]{X, Y, Z};
+        out[offset] = (116 * y) - 16;
+        out[offset + 1] = 500 * (x - y);
+        out[offset + 2] = 200 * (y - z);
     }
 
-    private static double[] xyzToLab(double X, double Y, double Z) {
-        X /= REF_X;
-        Y /= REF_Y;
-        Z /= REF_Z;
+    private static double labF(double t) {
+        return (t > 0.008856) ? fastCbrt(t) : (7.787 * t) + (16.0 / 116.0);
+    }
 
-        X = (X > 0.008856) ? Math.pow(X, 1.0 / 3.0) : (7.787 * X) + (16.0 / 116.0);
-        Y = (Y > 0.008856) ? Math.pow(Y, 1.0 / 3.0) : (7.787 * Y) + (16.0 / 116.0);
-        Z = (Z > 0.008856) ? Math.pow(Z, 1.0 / 3.0) : (7.787 * Z) + (16.0 / 116.0);
+    /**
+     * Cube root of a positive value, bit level estimate refined by Newton iterations.
+     */
+    static double fastCbrt(double x) {
+        double y = Double.longBitsToDouble(Double.doubleToRawLongBits(x) / 3 + 0x2A9F7893782DA1CEL);
+        y = (2 * y + x / (y * y)) / 3;
+        y = (2 * y + x / (y * y)) / 3;
+        y = (2 * y + x / (y * y)) / 3;
+        return y;
+    }
 
-        double L = (116 * Y) - 16;
-        double a = 500 * (X - Y);
-        double b = 200 * (Y - Z);
+    /**
+     * Squared CIEDE2000 color difference (Sharma, Wu and Dalal formulation).
+     */
+    public static double ciede2000Squared(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double cBar = (Math.sqrt(a1 * a1 + b1 * b1) + Math.sqrt(a2 * a2 + b2 * b2)) / 2;
+        double cBar7 = pow7(cBar);
+        double g = 0.5 * (1 - Math.sqrt(cBar7 / (cBar7 + POW25_7)));
+        double a1p = (1 + g) * a1;
+        double a2p = (1 + g) * a2;
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hueAngle(a1p, b1);
+        double h2p = hueAngle(a2p, b2);
+
+        double dLp = l2 - l1;
+        double dCp = c2p - c1p;
+        double dhp = 0;
+        boolean chromatic = c1p * c2p != 0;
+        if (chromatic) {
+            dhp = h2p - h1p;
+            if (dhp > Math.PI)
+                dhp -= 2 * Math.PI;
+            else if (dhp < -Math.PI)
+                dhp += 2 * Math.PI;
+        }
+        double dHp = 2 * Math.sqrt(c1p * c2p) * Math.sin(dhp / 2);
+
+        double lBarp = (l1 + l2) / 2;
+        double cBarp = (c1p + c2p) / 2;
+        double hBarp = h1p + h2p;
+        if (chromatic) {
+            if (Math.abs(h1p - h2p) <= Math.PI)
+                hBarp /= 2;
+            else if (hBarp < 2 * Math.PI)
+                hBarp = (hBarp + 2 * Math.PI) / 2;
+            else
+                hBarp = (hBarp - 2 * Math.PI) / 2;
+        }
+
+        double t = 1 - 0.17 * Math.cos(hBarp - Math.toRadians(30))
+                + 0.24 * Math.cos(2 * hBarp)
+                + 0.32 * Math.cos(3 * hBarp + Math.toRadians(6))
+                - 0.20 * Math.cos(4 * hBarp - Math.toRadians(63));
+        double hueOffset = (Math.toDegrees(hBarp) - 275) / 25;
+        double dTheta = Math.toRadians(30) * Math.exp(-hueOffset * hueOffset);
+        double cBarp7 = pow7(cBarp);
+        double rC = 2 * Math.sqrt(cBarp7 / (cBarp7 + POW25_7));
+        double lOffset = (lBarp - 50) * (lBarp - 50);
+        double sL = 1 + 0.015 * lOffset / Math.sqrt(20 + lOffset);
+        double sC = 1 + 0.045 * cBarp;
+        double sH = 1 + 0.015 * cBarp * t;
+        double rT = -Math.sin(2 * dTheta) * rC;
+
+        double l = dLp / sL;
+        double c = dCp / sC;
+        double h = dHp / sH;
+        return l * l + c * c + h * h + rT * c * h;
+    }
 
-        return new double[]{L, a, b};
+    private static double hueAngle(double a, double b) {
+        if (a == 0 && b == 0)
+            return 0;
+        double h = Math.atan2(b, a);
+        return h < 0 ? h + 2 * Math.PI : h;
     }
 
-    private static double calculateLabDistance(double[] lab1, double[] lab2) {
-        return Math.sqrt(Math.pow(lab1[0] - lab2[0], 2) +
-                Math.pow(lab1[1] - lab2[1], 2) +
-                Math.pow(lab1[2] - lab2[2], 2));
+    private static double pow7(double value) {
+        double squared = value * value;
+        return squared * squared * squared * value;
     }
 }
@@ -0,0 +1,185 @@
+package org.firedragon91245.cctresourceapi;
+
+import org.firedragon91245.cctresourceapi.cache.LruCache;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A palette converted to metric coordinates once and stored as a k-d tree for nearest color search.
+ * Compiled palettes are cached by content and shared between calls and computers. Ties resolve to the entry
+ * that came first in the palette, the same as a linear search.
+ */
+public class CompiledPalette {
+    private static final LruCache<Key, CompiledPalette> CACHE = new LruCache<>(
+            Config.PALETTE_CACHE_MAX_ENTRIES::get,
+            () -> Long.MAX_VALUE,
+            palette -> 0);
+
+    private final ColorUtil.Metric metric;
+    private final Object[] keys;
+    // tree order, node i is the median of its subrange
+    private final int[] entries;
+    private final double[] coordinates;
+    private final byte[] splitAxes;
+
+    private CompiledPalette(Key key) {
+        this.metric = key.metric;
+        this.keys = key.keys;
+
+        int size = keys.length;
+        coordinates = new double[size * 3];
+        for (int i = 0; i < size; i++) {
+            metric.toCoordinates(key.colors[i], coordinates, i * 3);
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        splitAxes = new byte[size];
+        build(order, 0, size);
+        entries = new int[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = order[i];
+        }
+    }
+
+    public static CompiledPalette compile(Map<Object, Color> palette, ColorUtil.Metric metric) {
+        Object[] keys = new Object[palette.size()];
+        int[] colors = new int[palette.size()];
+        int i = 0;
+        for (Map.Entry<Object, Color> entry : palette.entrySet()) {
+            keys[i] = entry.getKey();
+            colors[i] = entry.getValue().getRGB();
+            i++;
+        }
+        return compile(keys, colors, metric);
+    }
+
+    /**
+     * @param keys   palette keys, in palette order
+     * @param colors ARGB color of each key
+     */
+    public static CompiledPalette compile(Object[] keys, int[] colors, ColorUtil.Metric metric) {
+        if (keys.length == 0)
+            throw new IllegalArgumentException("Palette is empty");
+        return CACHE.computeIfAbsent(new Key(keys, colors, metric), CompiledPalette::new);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return a function from ARGB color to the key of the nearest palette entry, not thread safe
+     */
+    public IntFunction<Object> matcher() {
+        Search search = new Search();
+        return rgb -> keys[search.nearest(rgb)];
+    }
+
+    private void build(Integer[] order, int from, int to) {
+        if (to - from <= 1)
+            return;
+
+        int axis = widestAxis(order, from, to);
+        Arrays.sort(order, from, to, Comparator.comparingDouble(entry -> coordinates[entry * 3 + axis]));
+        int median = (from + to) >>> 1;
+        splitAxes[median] = (byte) axis;
+        build(order, from, median);
+        build(order, median + 1, to);
+    }
+
+    private int widestAxis(Integer[] order, int from, int to) {
+        int widest = 0;
+        double widestSpread = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                double value = coordinates[order[i] * 3 + axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    private class Search {
+        private final double[] query = new double[3];
+        private int best;
+        private double bestDistance;
+
+        int nearest(int rgb) {
+            metric.toCoordinates(rgb, query, 0);
+            best = Integer.MAX_VALUE;
+            bestDistance = Double.MAX_VALUE;
+            search(0, entries.length);
+            return best;
+        }
+
+        private void search(int from, int to) {
+            if (from >= to)
+                return;
+
+            int median = (from + to) >>> 1;
+            int entry = entries[median];
+            double distance = metric.distanceSquared(query, 0, coordinates, entry * 3);
+            if (distance < bestDistance || (distance == bestDistance && entry < best)) {
+                bestDistance = distance;
+                best = entry;
+            }
+            if (to - from == 1)
+                return;
+
+            int axis = splitAxes[median];
+            double difference = query[axis] - coordinates[entry * 3 + axis];
+            if (difference < 0) {
+                search(from, median);
+                if (metric.axisLowerBound(axis, difference) <= bestDistance)
+                    search(median + 1, to);
+            } else {
+                search(median + 1, to);
+                if (metric.axisLowerBound(axis, difference) <= bestDistance)
+                    search(from, median);
+            }
+        }
+    }
+
+    private static class Key {
+        final Object[] keys;
+        final int[] colors;
+        final ColorUtil.Metric metric;
+        final int hash;
+
+        Key(Object[] keys, int[] colors, ColorUtil.Metric metric) {
+            this.keys = keys;
+            this.colors = colors;
+            this.metric = metric;
+            this.hash = 31 * (31 * Arrays.hashCode(keys) + Arrays.hashCode(colors)) + metric.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return hash == key.hash && metric == key.metric && Arrays.equals(colors, key.colors) && Arrays.equals(keys, key.keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.firedragon91245.cctresourceapi;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+
+public class Config {
+    public static final ForgeConfigSpec SPEC;
+
+    public static final ForgeConfigSpec.IntValue MODEL_CACHE_MAX_ENTRIES;
+    public static final ForgeConfigSpec.LongValue MODEL_CACHE_MAX_BYTES;
+    public static final ForgeConfigSpec.LongValue TEXTURE_CACHE_MAX_BYTES;
+    public static final ForgeConfigSpec.LongValue DECODED_TEXTURE_CACHE_MAX_BYTES;
+    public static final ForgeConfigSpec.BooleanValue PALETTE_LUT_FULL_PRECISION;
+    public static final ForgeConfigSpec.IntValue PALETTE_CACHE_MAX_ENTRIES;
+    public static final ForgeConfigSpec.IntValue TEXTURE_HANDLE_TTL_SECONDS;
+    public static final ForgeConfigSpec.IntValue TEXTURE_HANDLE_MAX_PER_COMPUTER;
+
+    static {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+
+        builder.push("cache");
+        MODEL_CACHE_MAX_ENTRIES = builder
+                .comment("Maximum number of resolved block and item model infos kept in memory (per kind)")
+                .defineInRange("modelCacheMaxEntries", 1024, 0, Integer.MAX_VALUE);
+        MODEL_CACHE_MAX_BYTES = builder
+                .comment("Maximum estimated size in bytes of all resolved block and item model infos kept in memory (per kind)")
+                .defineInRange("modelCacheMaxBytes", 64L * 1024 * 1024, 0L, Long.MAX_VALUE);
+        TEXTURE_CACHE_MAX_BYTES = builder
+                .comment("Maximum size in bytes of texture files kept in memory as read from the resources")
+                .defineInRange("textureCacheMaxBytes", 32L * 1024 * 1024, 0L, Long.MAX_VALUE);
+        DECODED_TEXTURE_CACHE_MAX_BYTES = builder
+                .comment("Maximum size in bytes of decoded texture pixels kept in memory")
+                .defineInRange("decodedTextureCacheMaxBytes", 32L * 1024 * 1024, 0L, Long.MAX_VALUE);
+        builder.pop();
+
+        builder.push("palette");
+        PALETTE_LUT_FULL_PRECISION = builder
+                .comment("Match colors to the built in CC palettes with a full 16M entry table (16MB per palette) instead of 5 bits per channel")
+                .define("paletteLutFullPrecision", false);
+        PALETTE_CACHE_MAX_ENTRIES = builder
+                .comment("Maximum number of compiled custom palettes kept in memory")
+                .defineInRange("paletteCacheMaxEntries", 64, 0, Integer.MAX_VALUE);
+        builder.pop();
+
+        builder.push("handles");
+        TEXTURE_HANDLE_TTL_SECONDS = builder
+                .comment("Seconds a texture handle stays valid after it was last used")
+                .defineInRange("textureHandleTtlSeconds", 300, 1, Integer.MAX_VALUE);
+        TEXTURE_HANDLE_MAX_PER_COMPUTER = builder
+                .comment("Maximum number of live texture handles per computer, the least recently used are released first")
+                .defineInRange("textureHandleMaxPerComputer", 1024, 1, Integer.MAX_VALUE);
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+}
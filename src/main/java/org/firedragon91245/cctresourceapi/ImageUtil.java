@@ -0,0 +1,77 @@
+package org.firedragon91245.cctresourceapi;
+
+import java.awt.image.*;
+
+public class ImageUtil {
+    /**
+     * Reads all pixels of an image as packed non premultiplied ARGB, row by row. The common layouts decoded by
+     * ImageIO are read straight from the data buffer, anything else goes through one bulk getRGB.
+     */
+    public static int[] readArgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = new int[width * height];
+        WritableRaster raster = image.getRaster();
+        if (raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0 && raster.getDataBuffer().getNumBanks() == 1 && raster.getDataBuffer().getOffset() == 0) {
+            switch (image.getType()) {
+                case BufferedImage.TYPE_INT_ARGB:
+                case BufferedImage.TYPE_INT_RGB:
+                    if (readPackedInt(image, raster, pixels, image.getType() == BufferedImage.TYPE_INT_RGB))
+                        return pixels;
+                    break;
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                case BufferedImage.TYPE_3BYTE_BGR:
+                    if (readInterleavedBytes(image, raster, pixels))
+                        return pixels;
+                    break;
+            }
+        }
+        image.getRGB(0, 0, width, height, pixels, 0, width);
+        return pixels;
+    }
+
+    private static boolean readPackedInt(BufferedImage image, WritableRaster raster, int[] pixels, boolean opaque) {
+        if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel))
+            return false;
+        SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        int width = image.getWidth();
+        int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int stride = sampleModel.getScanlineStride();
+        for (int y = 0; y < image.getHeight(); y++) {
+            System.arraycopy(data, y * stride, pixels, y * width, width);
+        }
+        if (opaque) {
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] |= 0xFF000000;
+            }
+        }
+        return true;
+    }
+
+    private static boolean readInterleavedBytes(BufferedImage image, WritableRaster raster, int[] pixels) {
+        if (!(raster.getSampleModel() instanceof PixelInterleavedSampleModel))
+            return false;
+        PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+        int pixelStride = sampleModel.getPixelStride();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        boolean alpha = bandOffsets.length == 4;
+        // band order is R, G, B(, A)
+        int r = bandOffsets[0];
+        int g = bandOffsets[1];
+        int b = bandOffsets[2];
+        int a = alpha ? bandOffsets[3] : 0;
+
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int width = image.getWidth();
+        int stride = sampleModel.getScanlineStride();
+        int i = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            int offset = y * stride;
+            for (int x = 0; x < width; x++, offset += pixelStride) {
+                int argb = alpha ? (data[offset + a] & 0xFF) << 24 : 0xFF000000;
+                pixels[i++] = argb | (data[offset + r] & 0xFF) << 16 | (data[offset + g] & 0xFF) << 8 | (data[offset + b] & 0xFF);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package org.firedragon91245.cctresourceapi;
+
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * Nearest palette entry for every RGB color of a fixed palette, built once on first use. By default colors are
+ * looked up with 5 bits per channel (32K entries), {@code paletteLutFullPrecision} switches to all 16M colors.
+ * Alpha is ignored, the same as {@link ColorUtil#rgbDistance(Color, Color)}.
+ */
+public class PaletteLut {
+    private final Object[] keys;
+    private final double[] labs;
+    private volatile byte[] table;
+    private volatile boolean fullPrecision;
+
+    public PaletteLut(Map<Object, Color> palette) {
+        if (palette.size() > 256)
+            throw new IllegalArgumentException("Palette has more than 256 colors");
+
+        keys = new Object[palette.size()];
+        labs = new double[palette.size() * 3];
+        int i = 0;
+        // same order as iterating the palette, so ties resolve to the same entry as a linear search
+        for (Map.Entry<Object, Color> entry : palette.entrySet()) {
+            keys[i] = entry.getKey();
+            ColorUtil.Metric.LAB_DE76.toCoordinates(entry.getValue().getRGB(), labs, i * 3);
+            i++;
+        }
+    }
+
+    public Object lookup(int rgb) {
+        return keys[lookupIndex(rgb)];
+    }
+
+    /**
+     * @return the index of the nearest entry in palette iteration order, see {@link #getKey(int)}
+     */
+    public int lookupIndex(int rgb) {
+        byte[] table = this.table;
+        if (table == null) {
+            build();
+            table = this.table;
+        }
+
+        int index = fullPrecision
+                ? rgb & 0xFFFFFF
+                : (rgb >> 9 & 0x7C00) | (rgb >> 6 & 0x3E0) | (rgb >> 3 & 0x1F);
+        return table[index] & 0xFF;
+    }
+
+    public Object getKey(int index) {
+        return keys[index];
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private synchronized void build() {
+        if (table != null)
+            return;
+
+        boolean full = Config.PALETTE_LUT_FULL_PRECISION.get();
+        double[] lab = new double[3];
+        byte[] table;
+        if (full) {
+            table = new byte[1 << 24];
+            for (int rgb = 0; rgb < table.length; rgb++) {
+                table[rgb] = (byte) nearest(rgb, lab);
+            }
+        } else {
+            table = new byte[1 << 15];
+            for (int index = 0; index < table.length; index++) {
+                int r = expand5(index >> 10 & 0x1F);
+                int g = expand5(index >> 5 & 0x1F);
+                int b = expand5(index & 0x1F);
+                table[index] = (byte) nearest(r << 16 | g << 8 | b, lab);
+            }
+        }
+        fullPrecision = full;
+        this.table = table;
+    }
+
+    private int nearest(int rgb, double[] lab) {
+        ColorUtil.Metric.LAB_DE76.toCoordinates(rgb, lab, 0);
+        int closest = 0;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            double distance = ColorUtil.Metric.LAB_DE76.distanceSquared(lab, 0, labs, i * 3);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    private static int expand5(int value) {
+        return value << 3 | value >> 2;
+    }
+}
@@ -0,0 +1,116 @@
+package org.firedragon91245.cctresourceapi.cache;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread safe least recently used cache bounded by entry count and by an estimated weight in bytes.
+ * Values are loaded outside of the lock, a load that races with {@link #invalidateAll()} is not stored.
+ */
+public class LruCache<K, V> {
+    private final IntSupplier maxEntries;
+    private final LongSupplier maxWeight;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, WeightedValue<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long generation;
+
+    public LruCache(IntSupplier maxEntries, LongSupplier maxWeight, ToLongFunction<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    @Nullable
+    public synchronized V get(K key) {
+        WeightedValue<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    @Nullable
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            WeightedValue<V> entry = entries.get(key);
+            if (entry != null)
+                return entry.value;
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value == null)
+            return null;
+
+        synchronized (this) {
+            if (loadGeneration != generation)
+                return value;
+            WeightedValue<V> existing = entries.get(key);
+            if (existing != null)
+                return existing.value;
+            insert(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        WeightedValue<V> old = entries.remove(key);
+        if (old != null)
+            totalWeight -= old.weight;
+        insert(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        WeightedValue<V> old = entries.remove(key);
+        if (old != null)
+            totalWeight -= old.weight;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalWeight = 0;
+        generation++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    private void insert(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        int entryLimit = maxEntries.getAsInt();
+        long weightLimit = maxWeight.getAsLong();
+        if (entryLimit <= 0 || weight > weightLimit)
+            return;
+
+        entries.put(key, new WeightedValue<>(value, weight));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, WeightedValue<V>>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > entryLimit || totalWeight > weightLimit) && iterator.hasNext()) {
+            Map.Entry<K, WeightedValue<V>> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+        }
+    }
+
+    private static class WeightedValue<V> {
+        final V value;
+        final long weight;
+
+        WeightedValue(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
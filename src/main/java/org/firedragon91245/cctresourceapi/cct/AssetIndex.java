@@ -0,0 +1,113 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * In memory index of every asset path (relative to {@code assets/<namespace>/}) in the bundled
+ * minecraft resources and in each mod jar. Namespaces that could not be indexed are treated as unknown,
+ * lookups for them fall back to reading the file.
+ */
+public class AssetIndex {
+    private static volatile Map<String, NamespaceAssets> index;
+
+    public static void build() {
+        Map<String, NamespaceAssets> namespaces = new HashMap<>();
+        indexBundled(namespaces);
+        // a jar holding several mods is listed once
+        Map<ZipFile, List<String>> jarEntries = new IdentityHashMap<>();
+        for (String modid : ModJarIndex.getModIds()) {
+            if (namespaces.containsKey(modid))
+                continue;
+            ZipFile jar = ModJarPool.getJar(modid);
+            if (jar != null)
+                namespaces.put(modid, indexJar(jarEntries.computeIfAbsent(jar, AssetIndex::listEntries), "assets/" + modid + "/"));
+        }
+        index = Collections.unmodifiableMap(namespaces);
+    }
+
+    public static boolean isKnownMissing(String namespace, String path) {
+        NamespaceAssets assets = getIndex().get(namespace);
+        return assets != null && !assets.paths.contains(path);
+    }
+
+    public static List<String> listAssets(String namespace, String kind, @Nullable Pattern pattern) {
+        NamespaceAssets assets = getIndex().get(namespace);
+        if (assets == null)
+            return Collections.emptyList();
+
+        String prefix = kind + "/";
+        List<String> result = new ArrayList<>();
+        int start = Arrays.binarySearch(assets.sortedPaths, prefix);
+        if (start < 0)
+            start = -start - 1;
+        for (int i = start; i < assets.sortedPaths.length && assets.sortedPaths[i].startsWith(prefix); i++) {
+            String path = assets.sortedPaths[i];
+            if (path.endsWith(".mcmeta"))
+                continue;
+
+            int extension = path.lastIndexOf('.');
+            String id = path.substring(prefix.length(), extension > prefix.length() ? extension : path.length());
+            if (pattern == null || pattern.matcher(id).matches())
+                result.add(namespace + ":" + id);
+        }
+        return result;
+    }
+
+    private static Map<String, NamespaceAssets> getIndex() {
+        Map<String, NamespaceAssets> namespaces = index;
+        if (namespaces == null) {
+            build();
+            namespaces = index;
+        }
+        return namespaces;
+    }
+
+    private static void indexBundled(Map<String, NamespaceAssets> namespaces) {
+        BundledArchive archive = BundledArchive.get();
+        if (archive == null)
+            return;
+
+        String prefix = "bundled_resources/minecraft/";
+        List<String> paths = new ArrayList<>();
+        for (String path : archive.getPaths()) {
+            if (path.startsWith(prefix))
+                paths.add(path.substring(prefix.length()));
+        }
+        namespaces.put("minecraft", new NamespaceAssets(paths));
+    }
+
+    private static List<String> listEntries(ZipFile jar) {
+        List<String> names = new ArrayList<>();
+        Enumeration<? extends ZipEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory())
+                names.add(entry.getName());
+        }
+        return names;
+    }
+
+    private static NamespaceAssets indexJar(List<String> entryNames, String prefix) {
+        List<String> paths = new ArrayList<>();
+        for (String name : entryNames) {
+            if (name.startsWith(prefix))
+                paths.add(name.substring(prefix.length()));
+        }
+        return new NamespaceAssets(paths);
+    }
+
+    private static class NamespaceAssets {
+        final Set<String> paths;
+        final String[] sortedPaths;
+
+        NamespaceAssets(List<String> paths) {
+            this.paths = new HashSet<>(paths);
+            this.sortedPaths = paths.toArray(new String[0]);
+            Arrays.sort(this.sortedPaths);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.lua.LuaException;
+import org.firedragon91245.cctresourceapi.ColorUtil;
+import org.firedragon91245.cctresourceapi.ImageUtil;
+import org.firedragon91245.cctresourceapi.PaletteLut;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Converts images to strings {@code term.blit} takes directly, quantized to the CC palette.
+ * <ul>
+ *     <li>rows: one string of blit colors per pixel row</li>
+ *     <li>blit: one {text, fg, bg} triple per pixel row, drawn with spaces</li>
+ *     <li>teletext: one {text, fg, bg} triple per 2x3 pixel cell row, drawn with the CC drawing characters</li>
+ * </ul>
+ */
+public class BlitOutput {
+    private static final PaletteLut PALETTE = ResourceAPI.COMPUTECRAFT_PALETTE_BLIT_LUT;
+    private static final char[] BLIT_CHARS = new char[PALETTE.size()];
+    // squared Lab distance between palette entries, used to place pixels of a third color in a teletext cell
+    private static final double[] PALETTE_DISTANCES = new double[PALETTE.size() * PALETTE.size()];
+
+    static {
+        Map<Object, Color> palette = ResourceAPI.COMPUTECRAFT_PALETTE_BLIT;
+        double[] labs = new double[PALETTE.size() * 3];
+        for (int i = 0; i < PALETTE.size(); i++) {
+            Object key = PALETTE.getKey(i);
+            BLIT_CHARS[i] = String.valueOf(key).charAt(0);
+            ColorUtil.Metric.LAB_DE76.toCoordinates(palette.get(key).getRGB(), labs, i * 3);
+        }
+        for (int i = 0; i < PALETTE.size(); i++) {
+            for (int j = 0; j < PALETTE.size(); j++) {
+                PALETTE_DISTANCES[i * PALETTE.size() + j] = ColorUtil.Metric.LAB_DE76.distanceSquared(labs, i * 3, labs, j * 3);
+            }
+        }
+    }
+
+    public static Object[] convert(BufferedImage image, String mode) throws LuaException {
+        switch (mode) {
+            case "rows":
+                return rows(image);
+            case "blit":
+                return blitRows(image);
+            case "teletext":
+                return teletextRows(image);
+            default:
+                throw new LuaException("Invalid output mode");
+        }
+    }
+
+    /**
+     * @return the blit color character nearest to an ARGB color
+     */
+    static char blitChar(int argb) {
+        return BLIT_CHARS[PALETTE.lookupIndex(argb)];
+    }
+
+    public static String[] rows(BufferedImage image) {
+        int width = image.getWidth();
+        int[] indices = paletteIndices(image);
+        String[] rows = new String[image.getHeight()];
+        char[] row = new char[width];
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = BLIT_CHARS[indices[y * width + x]];
+            }
+            rows[y] = new String(row);
+        }
+        return rows;
+    }
+
+    public static String[][] blitRows(BufferedImage image) {
+        String[] colors = rows(image);
+        char[] spaces = new char[image.getWidth()];
+        Arrays.fill(spaces, ' ');
+        String text = new String(spaces);
+
+        String[][] rows = new String[colors.length][];
+        for (int y = 0; y < colors.length; y++) {
+            rows[y] = new String[]{text, colors[y], colors[y]};
+        }
+        return rows;
+    }
+
+    public static String[][] teletextRows(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] indices = paletteIndices(image);
+        int cellsX = (width + 1) / 2;
+        int cellsY = (height + 2) / 3;
+
+        String[][] rows = new String[cellsY][];
+        char[] text = new char[cellsX];
+        char[] fg = new char[cellsX];
+        char[] bg = new char[cellsX];
+        int[] cell = new int[6];
+        int[] counts = new int[PALETTE.size()];
+        for (int cellY = 0; cellY < cellsY; cellY++) {
+            for (int cellX = 0; cellX < cellsX; cellX++) {
+                // subpixels in CC order: top left, top right, middle left, middle right, bottom left, bottom right
+                for (int i = 0; i < 6; i++) {
+                    int x = Math.min(cellX * 2 + (i & 1), width - 1);
+                    int y = Math.min(cellY * 3 + (i >> 1), height - 1);
+                    cell[i] = indices[y * width + x];
+                }
+                encodeCell(cell, counts, cellX, text, fg, bg);
+            }
+            rows[cellY] = new String[]{new String(text), new String(fg), new String(bg)};
+        }
+        return rows;
+    }
+
+    private static void encodeCell(int[] cell, int[] counts, int column, char[] text, char[] fg, char[] bg) {
+        // the two most common colors of the cell become foreground and background
+        int first = -1;
+        int second = -1;
+        for (int color : cell) {
+            counts[color]++;
+        }
+        for (int color : cell) {
+            if (counts[color] == 0 || color == first || color == second)
+                continue;
+            if (first < 0 || counts[color] > counts[first]) {
+                second = first;
+                first = color;
+            } else if (second < 0 || counts[color] > counts[second]) {
+                second = color;
+            }
+        }
+        for (int color : cell) {
+            counts[color] = 0;
+        }
+        if (second < 0)
+            second = first;
+
+        // the bottom right subpixel is always drawn in the background color
+        int background = nearer(cell[5], first, second);
+        int foreground = background == first ? second : first;
+        int bits = 0;
+        for (int i = 0; i < 5; i++) {
+            if (nearer(cell[i], background, foreground) == foreground && foreground != background)
+                bits |= 1 << i;
+        }
+
+        text[column] = (char) (128 + bits);
+        fg[column] = BLIT_CHARS[foreground];
+        bg[column] = BLIT_CHARS[background];
+    }
+
+    private static int nearer(int color, int preferred, int other) {
+        if (color == preferred || color != other && PALETTE_DISTANCES[color * PALETTE.size() + preferred] <= PALETTE_DISTANCES[color * PALETTE.size() + other])
+            return preferred;
+        return other;
+    }
+
+    private static int[] paletteIndices(BufferedImage image) {
+        int[] pixels = ImageUtil.readArgb(image);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = PALETTE.lookupIndex(pixels[i]);
+        }
+        return pixels;
+    }
+}
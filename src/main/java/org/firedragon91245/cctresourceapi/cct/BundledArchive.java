@@ -0,0 +1,170 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read only view of {@code bundled_resources.pack}, generated by the {@code packBundledResources} gradle task.
+ * <p>
+ * Layout (big endian): magic, version, entry count, then per entry sorted by path the path (modified UTF-8),
+ * data offset and data length, followed by the file data. The pack is memory mapped, files are handed out as
+ * slices of the mapping. When the pack is inside the mod jar it cannot be mapped, it is read once into a direct buffer.
+ */
+public class BundledArchive {
+    public static final String PACK_NAME = "bundled_resources.pack";
+
+    private static final int MAGIC = 0x43435452; // CCTR
+    private static final int VERSION = 1;
+
+    private static volatile BundledArchive instance;
+    private static volatile boolean loaded;
+
+    private final ByteBuffer data;
+    private final String[] paths;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private BundledArchive(ByteBuffer mapped) throws IOException {
+        ByteBuffer header = mapped.duplicate();
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(header));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            throw new IOException("Invalid bundled resource pack header");
+
+        int count = in.readInt();
+        paths = new String[count];
+        offsets = new int[count];
+        lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            paths[i] = in.readUTF();
+            offsets[i] = in.readInt();
+            lengths[i] = in.readInt();
+        }
+
+        data = header.slice();
+    }
+
+    @Nullable
+    public static BundledArchive get() {
+        if (!loaded) {
+            synchronized (BundledArchive.class) {
+                if (!loaded) {
+                    instance = load();
+                    loaded = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public String[] getPaths() {
+        return paths;
+    }
+
+    public boolean contains(String path) {
+        return Arrays.binarySearch(paths, path) >= 0;
+    }
+
+    @Nullable
+    public ByteBuffer getFile(String path) {
+        int index = Arrays.binarySearch(paths, path);
+        if (index < 0)
+            return null;
+
+        ByteBuffer file = data.duplicate();
+        file.position(offsets[index]);
+        file.limit(offsets[index] + lengths[index]);
+        return file.slice();
+    }
+
+    @Nullable
+    public InputStream openStream(String path) {
+        ByteBuffer file = getFile(path);
+        return file != null ? new ByteBufferInputStream(file) : null;
+    }
+
+    @Nullable
+    private static BundledArchive load() {
+        URL packUrl = CCT_Resource_API.class.getClassLoader().getResource(PACK_NAME);
+        if (packUrl == null) {
+            CCT_Resource_API.LOGGER.error("Bundled resource pack not found, vanilla assets are unavailable");
+            return null;
+        }
+
+        try {
+            if ("file".equals(packUrl.getProtocol())) {
+                try (FileChannel channel = FileChannel.open(Paths.get(packUrl.toURI()), StandardOpenOption.READ)) {
+                    return new BundledArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+            }
+            return new BundledArchive(readDirect(packUrl));
+        } catch (IOException | URISyntaxException e) {
+            CCT_Resource_API.LOGGER.error("Failed to load bundled resource pack", e);
+            return null;
+        }
+    }
+
+    private static ByteBuffer readDirect(URL packUrl) throws IOException {
+        try (ReadableByteChannel channel = Channels.newChannel(packUrl.openStream())) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer grown = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    buffer.flip();
+                    grown.put(buffer);
+                    buffer = grown;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
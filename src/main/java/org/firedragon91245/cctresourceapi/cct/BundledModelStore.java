@@ -0,0 +1,259 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import net.minecraft.util.math.vector.Vector3f;
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+import org.firedragon91245.cctresourceapi.OneOrMore;
+import org.firedragon91245.cctresourceapi.entity.*;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-parsed vanilla models and blockstates from {@code bundled_models.bin}, generated by the
+ * {@code compileBundledModels} gradle task. Records are decoded on demand straight into the entity classes,
+ * all strings come from a shared string table so no Gson parsing or string building happens at runtime.
+ */
+public class BundledModelStore {
+    public static final String STORE_NAME = "bundled_models.bin";
+
+    private static final int MAGIC = 0x4343544D; // CCTM
+    private static final int VERSION = 2;
+
+    private static volatile BundledModelStore instance;
+    private static volatile boolean loaded;
+
+    private final String[] strings;
+    private final Map<String, Integer> modelIndex;
+    private final int[] modelOffsets;
+    private final Map<String, Integer> stateOffsets;
+    private final ByteBuffer records;
+
+    private BundledModelStore(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            throw new IOException("Invalid bundled model store header");
+
+        strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        int modelCount = in.readInt();
+        modelOffsets = new int[modelCount];
+        modelIndex = new HashMap<>(modelCount * 2);
+        for (int i = 0; i < modelCount; i++) {
+            modelIndex.put(strings[in.readInt()], i);
+            modelOffsets[i] = in.readInt();
+        }
+
+        int stateCount = in.readInt();
+        String[] stateIds = new String[stateCount];
+        int[] stateRecordOffsets = new int[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            stateIds[i] = strings[in.readInt()];
+            stateRecordOffsets[i] = in.readInt();
+        }
+
+        int recordsStart = data.length - in.available();
+        records = ByteBuffer.wrap(data, recordsStart, data.length - recordsStart).slice();
+
+        // multipart blockstates are stored with a variant count of -1, they are not loaded from the store
+        stateOffsets = new HashMap<>(stateCount * 2);
+        for (int i = 0; i < stateCount; i++) {
+            if (records.getInt(stateRecordOffsets[i]) >= 0)
+                stateOffsets.put(stateIds[i], stateRecordOffsets[i]);
+        }
+    }
+
+    @Nullable
+    public static BundledModelStore get() {
+        if (!loaded) {
+            synchronized (BundledModelStore.class) {
+                if (!loaded) {
+                    instance = load();
+                    loaded = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Nullable
+    public BlockModel loadBlockModel(String id) {
+        ByteBuffer in = openModel(id);
+        if (in == null)
+            return null;
+
+        BlockModel model = new BlockModel();
+        model.parent = readString(in);
+        model.gui_light = readString(in);
+        readTextures(in, model.textures);
+
+        int displayMask = in.getInt();
+        if (displayMask >= 0)
+            model.display = readDisplay(in, displayMask);
+        return model;
+    }
+
+    @Nullable
+    public ItemModel loadItemModel(String id) {
+        ByteBuffer in = openModel(id);
+        if (in == null)
+            return null;
+
+        ItemModel model = new ItemModel();
+        model.parent = readString(in);
+        readString(in); // gui_light
+        int position = in.position();
+        if (in.getInt() >= 0) {
+            in.position(position);
+            model.textures = new HashMap<>();
+            readTextures(in, model.textures);
+        }
+        return model;
+    }
+
+    @Nullable
+    public BlockStateModel loadBlockState(String id) {
+        Integer offset = stateOffsets.get(id);
+        if (offset == null)
+            return null;
+
+        ByteBuffer in = records.duplicate();
+        in.position(offset);
+        int variantCount = in.getInt();
+        if (variantCount < 0)
+            return null;
+
+        BlockStateModel model = new BlockStateModel();
+        for (int i = 0; i < variantCount; i++) {
+            String key = readString(in);
+            boolean more = in.get() != 0;
+            int count = in.getInt();
+            List<BlockStateModelVariant> variants = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                variants.add(readVariant(in));
+            }
+            model.variants.put(key, more ? OneOrMore.fromMore(variants) : OneOrMore.fromOne(variants.get(0)));
+        }
+        return model;
+    }
+
+    @Nullable
+    private ByteBuffer openModel(String id) {
+        Integer index = modelIndex.get(id);
+        if (index == null)
+            return null;
+
+        ByteBuffer in = records.duplicate();
+        in.position(modelOffsets[index]);
+        return in;
+    }
+
+    @Nullable
+    private String readString(ByteBuffer in) {
+        int index = in.getInt();
+        return index >= 0 ? strings[index] : null;
+    }
+
+    private void readTextures(ByteBuffer in, Map<String, String> textures) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            textures.put(key, readString(in));
+        }
+    }
+
+    private BlockModelDisplay readDisplay(ByteBuffer in, int displayMask) {
+        BlockModelDisplay display = new BlockModelDisplay();
+        if ((displayMask & 1) != 0)
+            display.gui = readDisplayEntry(in);
+        if ((displayMask & 1 << 1) != 0)
+            display.ground = readDisplayEntry(in);
+        if ((displayMask & 1 << 2) != 0)
+            display.fixed = readDisplayEntry(in);
+        if ((displayMask & 1 << 3) != 0)
+            display.head = readDisplayEntry(in);
+        if ((displayMask & 1 << 4) != 0)
+            display.firstperson_righthand = readDisplayEntry(in);
+        if ((displayMask & 1 << 5) != 0)
+            display.firstperson_lefthand = readDisplayEntry(in);
+        if ((displayMask & 1 << 6) != 0)
+            display.thirdperson_righthand = readDisplayEntry(in);
+        if ((displayMask & 1 << 7) != 0)
+            display.thirdperson_lefthand = readDisplayEntry(in);
+        return display;
+    }
+
+    private BlockModelDisplayEntry readDisplayEntry(ByteBuffer in) {
+        int vectorMask = in.get();
+        BlockModelDisplayEntry entry = new BlockModelDisplayEntry();
+        if ((vectorMask & 1) != 0)
+            entry.rotation = readVector(in);
+        if ((vectorMask & 1 << 1) != 0)
+            entry.translation = readVector(in);
+        if ((vectorMask & 1 << 2) != 0)
+            entry.scale = readVector(in);
+        return entry;
+    }
+
+    private Vector3f readVector(ByteBuffer in) {
+        return new Vector3f(in.getFloat(), in.getFloat(), in.getFloat());
+    }
+
+    private BlockStateModelVariant readVariant(ByteBuffer in) {
+        BlockStateModelVariant variant = new BlockStateModelVariant();
+        variant.model = readString(in);
+        int propertyCount = in.getInt();
+        for (int i = 0; i < propertyCount; i++) {
+            String key = readString(in);
+            JsonElement value;
+            switch (in.get()) {
+                case 1:
+                    value = new JsonPrimitive(in.get() != 0);
+                    break;
+                case 2:
+                    value = new JsonPrimitive(new BigDecimal(readString(in)));
+                    break;
+                default:
+                    value = new JsonPrimitive(readString(in));
+                    break;
+            }
+            variant.properties.put(key, value);
+        }
+        return variant;
+    }
+
+    @Nullable
+    private static BundledModelStore load() {
+        try (InputStream in = CCT_Resource_API.class.getClassLoader().getResourceAsStream(STORE_NAME)) {
+            if (in == null) {
+                CCT_Resource_API.LOGGER.warn("Bundled model store not found, falling back to json models");
+                return null;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new BundledModelStore(out.toByteArray());
+        } catch (IOException e) {
+            CCT_Resource_API.LOGGER.error("Failed to load bundled model store", e);
+            return null;
+        }
+    }
+}
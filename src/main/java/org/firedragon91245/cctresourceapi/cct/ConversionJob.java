@@ -0,0 +1,78 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.LuaFunction;
+import org.firedragon91245.cctresourceapi.ImageUtil;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A pixel conversion read out in row ranges, so scripts can render as rows come in instead of receiving the
+ * whole image as one table. The decoded pixels are kept until the job is closed.
+ */
+public class ConversionJob {
+    private final int width;
+    private final int height;
+    private final IntFunction<Object> pixelConverter;
+    private int[] pixels;
+    private int nextRow;
+
+    ConversionJob(BufferedImage image, IntFunction<Object> pixelConverter) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.pixelConverter = pixelConverter;
+        this.pixels = ImageUtil.readArgb(image);
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getWidth() {
+        return width;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param rowStart 1 based first row
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public synchronized Map<Integer, Map<Integer, Object>> read(int rowStart, int rowCount) throws LuaException {
+        if (pixels == null)
+            throw new LuaException("Conversion has been closed");
+        if (rowStart < 1 || rowCount < 0)
+            throw new LuaException("Invalid row range");
+
+        int from = Math.min(rowStart - 1, height);
+        int to = (int) Math.min((long) from + rowCount, height);
+        nextRow = to;
+        return ResourceAPI.pixelsToMap(pixels, width, from, to, pixelConverter);
+    }
+
+    /**
+     * Reads the rows after the last read.
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public synchronized Map<Integer, Map<Integer, Object>> readNext(int rowCount) throws LuaException {
+        return read(nextRow + 1, rowCount);
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public synchronized boolean hasNext() {
+        return pixels != null && nextRow < height;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public synchronized void close() {
+        pixels = null;
+    }
+}
@@ -0,0 +1,146 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import org.firedragon91245.cctresourceapi.cache.LruCache;
+
+import java.util.regex.Pattern;
+
+/**
+ * A filter pattern from Lua classified by what it actually needs. Most filters are {@code ".*"}, a plain id or a
+ * plain id with a leading or trailing {@code ".*"}, those are matched with string operations and can be answered
+ * from sorted indexes. Only real regular expressions are compiled. Parsed patterns are cached by their source.
+ */
+public class IdPattern {
+    public enum Kind {
+        ALL,
+        LITERAL,
+        PREFIX,
+        SUFFIX,
+        CONTAINS,
+        REGEX
+    }
+
+    public static final IdPattern MATCH_ALL = new IdPattern(".*", Kind.ALL, "", null);
+
+    private static final String META_CHARS = "\\^$.|?*+()[]{}";
+    private static final LruCache<String, IdPattern> CACHE = new LruCache<>(() -> 512, () -> Long.MAX_VALUE, pattern -> 1);
+
+    public final String source;
+    public final Kind kind;
+    // the literal part for every kind but ALL and REGEX
+    public final String literal;
+    private final Pattern regex;
+
+    private IdPattern(String source, Kind kind, String literal, Pattern regex) {
+        this.source = source;
+        this.kind = kind;
+        this.literal = literal;
+        this.regex = regex;
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if the pattern is not a valid regular expression
+     */
+    public static IdPattern of(String source) {
+        if (source.equals(".*"))
+            return MATCH_ALL;
+        IdPattern cached = CACHE.get(source);
+        if (cached != null)
+            return cached;
+
+        IdPattern pattern = classify(source);
+        CACHE.put(source, pattern);
+        return pattern;
+    }
+
+    public boolean matches(String value) {
+        switch (kind) {
+            case ALL:
+                return true;
+            case LITERAL:
+                return value.equals(literal);
+            case PREFIX:
+                return value.startsWith(literal);
+            case SUFFIX:
+                return value.endsWith(literal);
+            case CONTAINS:
+                return value.contains(literal);
+            default:
+                return regex.matcher(value).matches();
+        }
+    }
+
+    /**
+     * Matches {@code value.substring(start, end)} without creating the substring.
+     */
+    public boolean matches(String value, int start, int end) {
+        int length = end - start;
+        switch (kind) {
+            case ALL:
+                return true;
+            case LITERAL:
+                return length == literal.length() && value.startsWith(literal, start);
+            case PREFIX:
+                return length >= literal.length() && value.startsWith(literal, start);
+            case SUFFIX:
+                return length >= literal.length() && value.startsWith(literal, end - literal.length());
+            case CONTAINS:
+                int found = value.indexOf(literal, start);
+                return found >= 0 && found + literal.length() <= end;
+            default:
+                return regex.matcher(value).region(start, end).matches();
+        }
+    }
+
+    private static IdPattern classify(String source) {
+        boolean leadingAny = source.startsWith(".*");
+        boolean trailingAny = source.length() >= (leadingAny ? 4 : 2) && source.endsWith(".*") && !isEscaped(source, source.length() - 2);
+        String body = source.substring(leadingAny ? 2 : 0, source.length() - (trailingAny ? 2 : 0));
+
+        String literal = unescapeLiteral(body);
+        if (literal == null)
+            return new IdPattern(source, Kind.REGEX, null, Pattern.compile(source));
+
+        Kind kind;
+        if (leadingAny && trailingAny)
+            kind = Kind.CONTAINS;
+        else if (leadingAny)
+            kind = Kind.SUFFIX;
+        else if (trailingAny)
+            kind = Kind.PREFIX;
+        else
+            kind = Kind.LITERAL;
+        return new IdPattern(source, kind, literal, null);
+    }
+
+    private static boolean isEscaped(String source, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && source.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * @return the text matched by a pattern without any regex features, escaped punctuation like {@code \.} is
+     * allowed, null if the pattern needs a regex
+     */
+    private static String unescapeLiteral(String body) {
+        StringBuilder literal = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= body.length())
+                    return null;
+                char escaped = body.charAt(++i);
+                if (Character.isLetterOrDigit(escaped))
+                    return null;
+                literal.append(escaped);
+            } else if (META_CHARS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+}
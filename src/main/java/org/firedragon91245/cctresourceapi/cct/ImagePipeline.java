@@ -0,0 +1,311 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.lua.LuaException;
+import org.firedragon91245.cctresourceapi.ImageUtil;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of image operations run on the server before quantization, so scripts never resample pixels in Lua.
+ * Operations are given as a list of tables, each with an {@code op} field:
+ * <ul>
+ *     <li>{@code {op="crop", x=1, y=1, width=16, height=16}} coordinates start at 1</li>
+ *     <li>{@code {op="scale", width=51, height=19, filter="area"}} filter is "nearest" (default) or "area"</li>
+ *     <li>{@code {op="tint", color=0x91BD59}} multiplies every pixel with the color, for tintindex textures</li>
+ *     <li>{@code {op="overlay", texture="minecraft:block/grass_block_side_overlay", x=1, y=1}} alpha composites
+ *     another image on top, {@code texture} is a texture id or texture handle id, {@code image} a texture table or
+ *     binary image string</li>
+ * </ul>
+ * All operations are validated before any pixel work is done.
+ */
+public class ImagePipeline {
+    // upper bound for any intermediate image, 16 MiB of pixels
+    private static final int MAX_PIXELS = 4096 * 1024;
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private ImagePipeline() {
+    }
+
+    public static ImagePipeline parse(Map<?, ?> operationList, ImageResolver resolver) throws LuaException {
+        ImagePipeline pipeline = new ImagePipeline();
+        for (int i = 1; i <= operationList.size(); i++) {
+            Object operation = operationList.get((double) i);
+            if (!(operation instanceof Map))
+                throw new LuaException("Image operation " + i + " is not a table");
+            pipeline.operations.add(parseOperation((Map<?, ?>) operation, resolver));
+        }
+        return pipeline;
+    }
+
+    public BufferedImage apply(BufferedImage image) throws LuaException {
+        Pixels pixels = new Pixels(image.getWidth(), image.getHeight(), ImageUtil.readArgb(image));
+        for (Operation operation : operations) {
+            pixels = operation.apply(pixels);
+        }
+        return pixels.toImage();
+    }
+
+    private static Operation parseOperation(Map<?, ?> operation, ImageResolver resolver) throws LuaException {
+        Object op = operation.get("op");
+        if (!(op instanceof String))
+            throw new LuaException("Image operation is missing op");
+
+        switch ((String) op) {
+            case "crop": {
+                int x = getInt(operation, "x", 1) - 1;
+                int y = getInt(operation, "y", 1) - 1;
+                int width = getInt(operation, "width", -1);
+                int height = getInt(operation, "height", -1);
+                if (x < 0 || y < 0)
+                    throw new LuaException("Invalid crop region");
+                checkSize(width, height);
+                return pixels -> crop(pixels, x, y, width, height);
+            }
+            case "scale": {
+                int width = getInt(operation, "width", -1);
+                int height = getInt(operation, "height", -1);
+                checkSize(width, height);
+                Object filter = operation.get("filter");
+                if (filter == null || "nearest".equals(filter))
+                    return pixels -> scaleNearest(pixels, width, height);
+                if ("area".equals(filter))
+                    return pixels -> scaleArea(pixels, width, height);
+                throw new LuaException("Unknown scale filter " + filter);
+            }
+            case "tint": {
+                int color = getInt(operation, "color", -1);
+                if (color < 0 || color > 0xFFFFFF)
+                    throw new LuaException("Invalid tint color");
+                return pixels -> tint(pixels, color);
+            }
+            case "overlay": {
+                Object source = operation.containsKey("texture") ? operation.get("texture") : operation.get("image");
+                BufferedImage overlay = resolver.resolve(source, operation.containsKey("texture"));
+                int x = getInt(operation, "x", 1) - 1;
+                int y = getInt(operation, "y", 1) - 1;
+                Pixels overlayPixels = new Pixels(overlay.getWidth(), overlay.getHeight(), ImageUtil.readArgb(overlay));
+                return pixels -> overlay(pixels, overlayPixels, x, y);
+            }
+            default:
+                throw new LuaException("Unknown image operation " + op);
+        }
+    }
+
+    private static int getInt(Map<?, ?> operation, String key, int defaultValue) throws LuaException {
+        Object value = operation.get(key);
+        if (value == null)
+            return defaultValue;
+        if (!(value instanceof Number))
+            throw new LuaException("Expected a number for " + key);
+        return ((Number) value).intValue();
+    }
+
+    private static void checkSize(int width, int height) throws LuaException {
+        if (width < 1 || height < 1 || (long) width * height > MAX_PIXELS)
+            throw new LuaException("Invalid image size " + width + "x" + height);
+    }
+
+    static Pixels crop(Pixels source, int x, int y, int width, int height) throws LuaException {
+        if ((long) x + width > source.width || (long) y + height > source.height)
+            throw new LuaException("Crop region outside of the image");
+
+        int[] argb = new int[width * height];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(source.argb, (y + row) * source.width + x, argb, row * width, width);
+        }
+        return new Pixels(width, height, argb);
+    }
+
+    static Pixels scaleNearest(Pixels source, int width, int height) {
+        int[] columns = new int[width];
+        for (int x = 0; x < width; x++) {
+            columns[x] = (int) (((long) x * 2 + 1) * source.width / (width * 2L));
+        }
+
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int sourceOffset = (int) (((long) y * 2 + 1) * source.height / (height * 2L)) * source.width;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                argb[offset + x] = source.argb[sourceOffset + columns[x]];
+            }
+        }
+        return new Pixels(width, height, argb);
+    }
+
+    /**
+     * Box filter, every source pixel contributes by the area it covers. Colors are weighted by alpha so
+     * transparent pixels do not darken the edges.
+     */
+    static Pixels scaleArea(Pixels source, int width, int height) throws LuaException {
+        // the horizontal pass keeps the source height
+        checkSize(width, source.height);
+        float[] premultiplied = new float[source.argb.length * 4];
+        for (int i = 0; i < source.argb.length; i++) {
+            int pixel = source.argb[i];
+            float alpha = (pixel >>> 24) / 255f;
+            premultiplied[i * 4] = alpha;
+            premultiplied[i * 4 + 1] = (pixel >> 16 & 0xFF) * alpha;
+            premultiplied[i * 4 + 2] = (pixel >> 8 & 0xFF) * alpha;
+            premultiplied[i * 4 + 3] = (pixel & 0xFF) * alpha;
+        }
+
+        // horizontal pass into width x source.height, then vertical pass into width x height
+        float[] horizontal = new float[width * source.height * 4];
+        Weights columns = new Weights(source.width, width);
+        for (int y = 0; y < source.height; y++) {
+            for (int x = 0; x < width; x++) {
+                int target = (y * width + x) * 4;
+                for (int i = columns.starts[x]; i < columns.starts[x + 1]; i++) {
+                    int sourceIndex = (y * source.width + columns.indices[i]) * 4;
+                    float weight = columns.weights[i];
+                    for (int c = 0; c < 4; c++) {
+                        horizontal[target + c] += premultiplied[sourceIndex + c] * weight;
+                    }
+                }
+            }
+        }
+
+        int[] argb = new int[width * height];
+        Weights rows = new Weights(source.height, height);
+        float[] sum = new float[4];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sum[0] = sum[1] = sum[2] = sum[3] = 0;
+                for (int i = rows.starts[y]; i < rows.starts[y + 1]; i++) {
+                    int sourceIndex = (rows.indices[i] * width + x) * 4;
+                    float weight = rows.weights[i];
+                    for (int c = 0; c < 4; c++) {
+                        sum[c] += horizontal[sourceIndex + c] * weight;
+                    }
+                }
+
+                if (sum[0] <= 0)
+                    continue;
+                int alpha = Math.min(255, Math.round(sum[0] * 255));
+                int r = Math.min(255, Math.round(sum[1] / sum[0]));
+                int g = Math.min(255, Math.round(sum[2] / sum[0]));
+                int b = Math.min(255, Math.round(sum[3] / sum[0]));
+                argb[y * width + x] = alpha << 24 | r << 16 | g << 8 | b;
+            }
+        }
+        return new Pixels(width, height, argb);
+    }
+
+    static Pixels tint(Pixels source, int color) {
+        int tintR = color >> 16 & 0xFF;
+        int tintG = color >> 8 & 0xFF;
+        int tintB = color & 0xFF;
+        int[] argb = new int[source.argb.length];
+        for (int i = 0; i < argb.length; i++) {
+            int pixel = source.argb[i];
+            int r = ((pixel >> 16 & 0xFF) * tintR + 127) / 255;
+            int g = ((pixel >> 8 & 0xFF) * tintG + 127) / 255;
+            int b = ((pixel & 0xFF) * tintB + 127) / 255;
+            argb[i] = pixel & 0xFF000000 | r << 16 | g << 8 | b;
+        }
+        return new Pixels(source.width, source.height, argb);
+    }
+
+    /**
+     * Source over compositing of {@code overlay} with its top left corner at x, y, parts outside are clipped.
+     */
+    static Pixels overlay(Pixels base, Pixels overlay, int x, int y) {
+        int[] argb = base.argb.clone();
+        int startX = Math.max(0, x);
+        int startY = Math.max(0, y);
+        int endX = Math.min(base.width, x + overlay.width);
+        int endY = Math.min(base.height, y + overlay.height);
+        for (int row = startY; row < endY; row++) {
+            for (int column = startX; column < endX; column++) {
+                int top = overlay.argb[(row - y) * overlay.width + column - x];
+                int topAlpha = top >>> 24;
+                if (topAlpha == 0)
+                    continue;
+                int index = row * base.width + column;
+                if (topAlpha == 255) {
+                    argb[index] = top;
+                    continue;
+                }
+
+                int bottom = argb[index];
+                int bottomWeight = (bottom >>> 24) * (255 - topAlpha);
+                int outAlpha = topAlpha * 255 + bottomWeight;
+                int r = ((top >> 16 & 0xFF) * topAlpha * 255 + (bottom >> 16 & 0xFF) * bottomWeight + outAlpha / 2) / outAlpha;
+                int g = ((top >> 8 & 0xFF) * topAlpha * 255 + (bottom >> 8 & 0xFF) * bottomWeight + outAlpha / 2) / outAlpha;
+                int b = ((top & 0xFF) * topAlpha * 255 + (bottom & 0xFF) * bottomWeight + outAlpha / 2) / outAlpha;
+                argb[index] = ((outAlpha + 127) / 255) << 24 | r << 16 | g << 8 | b;
+            }
+        }
+        return new Pixels(base.width, base.height, argb);
+    }
+
+    public interface ImageResolver {
+        /**
+         * @param isTexture true for a texture id or texture handle id, false for a texture table or binary image string
+         */
+        BufferedImage resolve(Object image, boolean isTexture) throws LuaException;
+    }
+
+    private interface Operation {
+        Pixels apply(Pixels pixels) throws LuaException;
+    }
+
+    static class Pixels {
+        final int width;
+        final int height;
+        final int[] argb;
+
+        Pixels(int width, int height, int[] argb) {
+            this.width = width;
+            this.height = height;
+            this.argb = argb;
+        }
+
+        BufferedImage toImage() {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            image.getRaster().setDataElements(0, 0, width, height, argb);
+            return image;
+        }
+    }
+
+    /**
+     * Per target index the source indices and the share of the target each one covers.
+     */
+    private static class Weights {
+        final int[] starts;
+        final int[] indices;
+        final float[] weights;
+
+        Weights(int sourceSize, int targetSize) {
+            starts = new int[targetSize + 1];
+            List<Integer> indexList = new ArrayList<>();
+            List<Float> weightList = new ArrayList<>();
+            double scale = (double) sourceSize / targetSize;
+            for (int target = 0; target < targetSize; target++) {
+                starts[target] = indexList.size();
+                double start = target * scale;
+                double end = start + scale;
+                for (int source = (int) start; source < Math.min(sourceSize, Math.ceil(end)); source++) {
+                    double covered = Math.min(end, source + 1) - Math.max(start, source);
+                    if (covered > 0) {
+                        indexList.add(source);
+                        weightList.add((float) (covered / scale));
+                    }
+                }
+            }
+            starts[targetSize] = indexList.size();
+
+            indices = new int[indexList.size()];
+            weights = new float[weightList.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = indexList.get(i);
+                weights[i] = weightList.get(i);
+            }
+        }
+    }
+}
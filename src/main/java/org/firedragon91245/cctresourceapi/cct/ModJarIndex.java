@@ -0,0 +1,89 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.moddiscovery.ModFileInfo;
+import net.minecraftforge.fml.loading.moddiscovery.ModInfo;
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maps mod ids to the jar they were loaded from. Built once from the {@link ModList},
+ * mods that are not loaded from a jar file (e.g. the dev workspace) are kept as empty entries.
+ */
+public class ModJarIndex {
+    private static volatile Map<String, Optional<ModJar>> index;
+
+    public static void build() {
+        Map<String, Optional<ModJar>> jars = new HashMap<>();
+        for (ModInfo modInfo : ModList.get().getMods()) {
+            if (jars.containsKey(modInfo.getModId()))
+                continue;
+            jars.put(modInfo.getModId(), Optional.ofNullable(createModJar(modInfo)));
+        }
+        index = Collections.unmodifiableMap(jars);
+    }
+
+    public static Optional<ModJar> getModJar(String modid) {
+        return getIndex().getOrDefault(modid, Optional.empty());
+    }
+
+    public static Set<String> getModIds() {
+        return getIndex().keySet();
+    }
+
+    public static Optional<Path> getJarPath(String modid) {
+        return getModJar(modid).map(jar -> jar.path);
+    }
+
+    public static Optional<URL> getJarURL(String modid) {
+        return getModJar(modid).map(jar -> jar.url);
+    }
+
+    private static Map<String, Optional<ModJar>> getIndex() {
+        Map<String, Optional<ModJar>> jars = index;
+        if (jars == null) {
+            build();
+            jars = index;
+        }
+        return jars;
+    }
+
+    @Nullable
+    private static ModJar createModJar(ModInfo modInfo) {
+        ModFileInfo modFileInfo = modInfo.getOwningFile();
+        if (modFileInfo == null || modFileInfo.getFile() == null)
+            return null;
+
+        Path path = modFileInfo.getFile().getFilePath();
+        File file = path.toFile();
+        if (!file.isFile())
+            return null;
+
+        try {
+            return new ModJar(path, new URL("jar:file:" + file.getAbsolutePath() + "!/"));
+        } catch (MalformedURLException e) {
+            CCT_Resource_API.LOGGER.error("Failed to build jar url for mod " + modInfo.getModId(), e);
+            return null;
+        }
+    }
+
+    public static class ModJar {
+        public final Path path;
+        public final URL url;
+
+        public ModJar(Path path, URL url) {
+            this.path = path;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps one open {@link ZipFile} per mod jar for the lifetime of the server. Jars are keyed by their path from the
+ * {@link ModJarIndex}, mods sharing a jar share the handle. {@link ZipFile} is safe to read from multiple threads,
+ * so computers share the handles.
+ */
+public class ModJarPool {
+    private static final Map<Path, Optional<ZipFile>> JARS = new ConcurrentHashMap<>();
+
+    @Nullable
+    public static ZipFile getJar(String modid) {
+        Path path = ModJarIndex.getJarPath(modid).orElse(null);
+        if (path == null)
+            return null;
+        return JARS.computeIfAbsent(path.toAbsolutePath().normalize(), ModJarPool::openJar).orElse(null);
+    }
+
+    @Nullable
+    public static InputStream openStream(String modid, String location) throws IOException {
+        ZipFile jar = getJar(modid);
+        if (jar == null)
+            return null;
+
+        ZipEntry entry = jar.getEntry(location);
+        if (entry == null)
+            return null;
+        return jar.getInputStream(entry);
+    }
+
+    public static void closeAll() {
+        for (Optional<ZipFile> jar : JARS.values()) {
+            if (!jar.isPresent())
+                continue;
+            try {
+                jar.get().close();
+            } catch (IOException e) {
+                CCT_Resource_API.LOGGER.error("Failed to close mod jar", e);
+            }
+        }
+        JARS.clear();
+    }
+
+    private static Optional<ZipFile> openJar(Path path) {
+        try {
+            return Optional.of(new ZipFile(path.toFile()));
+        } catch (IOException e) {
+            CCT_Resource_API.LOGGER.error("Failed to load mod jar " + path, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+import org.firedragon91245.cctresourceapi.entity.BlockModel;
+import org.firedragon91245.cctresourceapi.entity.IModel;
+import org.firedragon91245.cctresourceapi.entity.ItemModel;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shared parent graph of every model loaded so far. Each model id is loaded once and kept as an immutable
+ * {@link ModelNode} pointing at its parent node, so chains like {@code block/cube_all -> block/cube -> block/block}
+ * are shared by every block using them. Resolving a model only loads the part of its chain that is not known yet.
+ */
+public class ModelGraph<M extends IModel> {
+    public static final ModelGraph<BlockModel> BLOCKS = new ModelGraph<>(ResourceLoading::loadBlockModelByLocation);
+    public static final ModelGraph<ItemModel> ITEMS = new ModelGraph<>(ResourceLoading::loadItemModelByLocation);
+
+    private final Function<String, M> loader;
+    private volatile Map<String, ModelNode<M>> nodes = new ConcurrentHashMap<>();
+
+    public ModelGraph(Function<String, M> loader) {
+        this.loader = loader;
+    }
+
+    public static void invalidateAll() {
+        BLOCKS.invalidate();
+        ITEMS.invalidate();
+    }
+
+    public void invalidate() {
+        // in flight resolves keep writing to the old map
+        nodes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the node for the given model reference, a node without a model if the model does not exist
+     */
+    public ModelNode<M> resolve(String reference) {
+        Map<String, ModelNode<M>> nodes = this.nodes;
+        String id = normalize(reference);
+        ModelNode<M> node = nodes.get(id);
+        if (node != null)
+            return node;
+
+        // walk up until a known node, a root, a missing model or a cycle
+        List<String> chainIds = new ArrayList<>();
+        List<M> chainModels = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        ModelNode<M> top = null;
+        String current = id;
+        while (current != null) {
+            top = nodes.get(current);
+            if (top != null)
+                break;
+            if (!visited.add(current)) {
+                CCT_Resource_API.LOGGER.warn("Model parent cycle detected at " + current);
+                break;
+            }
+
+            M model = loader.apply(current);
+            chainIds.add(current);
+            chainModels.add(model);
+            current = model != null && model.getParent() != null ? normalize(model.getParent()) : null;
+        }
+
+        for (int i = chainIds.size() - 1; i >= 0; i--) {
+            ModelNode<M> created = new ModelNode<>(chainIds.get(i), chainModels.get(i), top);
+            ModelNode<M> existing = nodes.putIfAbsent(created.id, created);
+            top = existing != null ? existing : created;
+        }
+        return top;
+    }
+
+    /**
+     * Puts the model for the given reference and all of its parents into {@code models}, keyed by the reference
+     * as written in the model files.
+     */
+    public void collectChain(String reference, Map<String, M> models) {
+        ModelNode<M> node = resolve(reference);
+        models.putIfAbsent(reference, node.model);
+        collectParents(node, models);
+    }
+
+    public void collectParents(ModelNode<M> node, Map<String, M> models) {
+        for (ModelNode<M> current = node; current.model != null && current.parent != null; current = current.parent) {
+            String parentReference = current.model.getParent();
+            if (models.containsKey(parentReference))
+                break;
+            models.put(parentReference, current.parent.model);
+        }
+    }
+
+    protected static String normalize(String reference) {
+        return reference.indexOf(':') < 0 ? "minecraft:" + reference : reference;
+    }
+
+    public static class ModelNode<M extends IModel> {
+        public final String id;
+        @Nullable
+        public final M model;
+        @Nullable
+        public final ModelNode<M> parent;
+
+        ModelNode(String id, @Nullable M model, @Nullable ModelNode<M> parent) {
+            this.id = id;
+            this.model = model;
+            this.parent = parent;
+        }
+    }
+}
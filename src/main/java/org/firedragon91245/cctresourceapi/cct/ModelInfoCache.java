@@ -0,0 +1,40 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import net.minecraft.util.ResourceLocation;
+import org.firedragon91245.cctresourceapi.Config;
+import org.firedragon91245.cctresourceapi.cache.LruCache;
+import org.firedragon91245.cctresourceapi.entity.BlockModelInfo;
+import org.firedragon91245.cctresourceapi.entity.IModelInfo;
+import org.firedragon91245.cctresourceapi.entity.ItemModelInfo;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
+
+public class ModelInfoCache {
+    // rough size of a parsed model (strings, texture map, display entries)
+    private static final long MODEL_OVERHEAD = 512;
+
+    protected static final LruCache<ResourceLocation, BlockModelInfo> BLOCKS = new LruCache<>(
+            Config.MODEL_CACHE_MAX_ENTRIES::get,
+            Config.MODEL_CACHE_MAX_BYTES::get,
+            ModelInfoCache::estimateSize);
+
+    protected static final LruCache<ResourceLocation, ItemModelInfo> ITEMS = new LruCache<>(
+            Config.MODEL_CACHE_MAX_ENTRIES::get,
+            Config.MODEL_CACHE_MAX_BYTES::get,
+            ModelInfoCache::estimateSize);
+
+    public static void invalidateAll() {
+        BLOCKS.invalidateAll();
+        ITEMS.invalidateAll();
+        ModelGraph.invalidateAll();
+        TextureStore.invalidateAll();
+    }
+
+    private static long estimateSize(IModelInfo modelInfo) {
+        long size = MODEL_OVERHEAD * (modelInfo.getModels().size() + 1);
+        for (Object texture : modelInfo.getTextures().values()) {
+            if (texture instanceof ModelTexture)
+                size += ((ModelTexture) texture).estimateSize();
+        }
+        return size;
+    }
+}
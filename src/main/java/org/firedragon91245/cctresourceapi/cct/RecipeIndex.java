@@ -0,0 +1,263 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ResourceLocation;
+import org.firedragon91245.cctresourceapi.Util;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Recipes of the loaded datapacks by id, with the sorted recipe ids for listings. Built when the server starts and
+ * dropped on reload, the next query rebuilds it. A reload also replaces the recipe manager, an index built from an
+ * older manager is never handed out.
+ * <p>
+ * Posting lists (recipe positions in ascending order) by result item, ingredient item, recipe type and namespace let
+ * filtered queries start from the recipes that can match at all, see {@link #findFirst}.
+ */
+public class RecipeIndex {
+    private static volatile RecipeIndex current;
+
+    private final RecipeManager manager;
+    private final Map<ResourceLocation, IRecipe<?>> recipesById;
+    private final RegistryIdIndex ids;
+
+    private final IRecipe<?>[] recipes;
+    private final Map<ResourceLocation, int[]> byResult;
+    private final Map<ResourceLocation, int[]> byIngredient;
+    // recipes whose ingredients hold no item at all, they match every "all ingredients are X" filter
+    private final int[] withoutIngredientItems;
+    private final Map<String, int[]> byType;
+    private final Map<String, int[]> byNamespace;
+
+    private RecipeIndex(RecipeManager manager) {
+        this.manager = manager;
+        recipes = manager.getRecipes().toArray(new IRecipe<?>[0]);
+        recipesById = new HashMap<>(recipes.length * 2);
+
+        Map<ResourceLocation, PostingBuilder> results = new HashMap<>();
+        Map<ResourceLocation, PostingBuilder> ingredients = new HashMap<>();
+        PostingBuilder withoutItems = new PostingBuilder();
+        Map<String, PostingBuilder> types = new HashMap<>();
+        Map<String, PostingBuilder> namespaces = new HashMap<>();
+        for (int i = 0; i < recipes.length; i++) {
+            IRecipe<?> recipe = recipes[i];
+            recipesById.put(recipe.getId(), recipe);
+
+            ResourceLocation result = recipe.getResultItem().getItem().getRegistryName();
+            if (result != null)
+                results.computeIfAbsent(result, key -> new PostingBuilder()).add(i);
+
+            boolean hasItems = false;
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                for (ItemStack stack : ingredient.getItems()) {
+                    ResourceLocation item = stack.getItem().getRegistryName();
+                    if (item != null)
+                        ingredients.computeIfAbsent(item, key -> new PostingBuilder()).add(i);
+                    hasItems = true;
+                }
+            }
+            if (!hasItems)
+                withoutItems.add(i);
+
+            types.computeIfAbsent(recipe.getType().toString(), key -> new PostingBuilder()).add(i);
+            namespaces.computeIfAbsent(recipe.getId().getNamespace(), key -> new PostingBuilder()).add(i);
+        }
+
+        ids = new RegistryIdIndex(recipesById.keySet());
+        byResult = PostingBuilder.buildAll(results);
+        byIngredient = PostingBuilder.buildAll(ingredients);
+        withoutIngredientItems = withoutItems.build();
+        byType = PostingBuilder.buildAll(types);
+        byNamespace = PostingBuilder.buildAll(namespaces);
+    }
+
+    public static RecipeIndex get(MinecraftServer server) {
+        RecipeManager manager = server.getRecipeManager();
+        RecipeIndex index = current;
+        if (index == null || index.manager != manager) {
+            index = new RecipeIndex(manager);
+            current = index;
+        }
+        return index;
+    }
+
+    public static void build(MinecraftServer server) {
+        current = new RecipeIndex(server.getRecipeManager());
+    }
+
+    public static void invalidate() {
+        current = null;
+    }
+
+    @Nullable
+    public IRecipe<?> getRecipe(ResourceLocation id) {
+        return recipesById.get(id);
+    }
+
+    public RegistryIdIndex getIds() {
+        return ids;
+    }
+
+    /**
+     * @param filterMap the recipe filter table, only used to narrow down the candidates
+     * @param filter    the compiled filter, run on every candidate
+     * @return the first recipe in recipe manager order that passes the filter
+     */
+    @Nullable
+    public IRecipe<?> findFirst(Map<String, Object> filterMap, Predicate<IRecipe<?>> filter) {
+        int[] candidates = candidates(filterMap);
+        if (candidates == null) {
+            for (IRecipe<?> recipe : recipes) {
+                if (filter.test(recipe))
+                    return recipe;
+            }
+            return null;
+        }
+
+        for (int candidate : candidates) {
+            if (filter.test(recipes[candidate]))
+                return recipes[candidate];
+        }
+        return null;
+    }
+
+    /**
+     * Intersects the posting lists of every part of the filter that has one. Only parts that are necessary for a
+     * match are used, everything else is left to the compiled filter.
+     * @return recipe positions in ascending order, null if the filter has no indexed part
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    int[] candidates(Map<String, Object> filterMap) {
+        List<int[]> lists = new ArrayList<>();
+        addLiteral(lists, byType, filterMap.get("type"));
+        addLiteral(lists, byNamespace, filterMap.get("modid"));
+
+        Object result = filterMap.get("result");
+        if (result instanceof String)
+            lists.add(postings(byResult, ResourceLocation.tryParse((String) result)));
+
+        Object ingredients = filterMap.get("ingredients");
+        if (ingredients instanceof String) {
+            ResourceLocation item = itemLocation((String) ingredients);
+            lists.add(union(postings(byIngredient, item), withoutIngredientItems));
+        } else if (ingredients instanceof Map) {
+            // "namespace:path" = count with a positive count needs the item in the recipe
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) ingredients).entrySet()) {
+                if (!(entry.getKey() instanceof String) || Util.countChar((String) entry.getKey(), ':') != 1)
+                    continue;
+                Integer count = Util.objectToInt(entry.getValue());
+                String[] parts = ((String) entry.getKey()).split(":");
+                if (count == null || count <= 0 || parts.length != 2)
+                    continue;
+                IdPattern namespace = IdPattern.of(parts[0]);
+                IdPattern path = IdPattern.of(parts[1]);
+                if (namespace.kind == IdPattern.Kind.LITERAL && path.kind == IdPattern.Kind.LITERAL)
+                    lists.add(postings(byIngredient, ResourceLocation.tryParse(namespace.literal + ":" + path.literal)));
+            }
+        }
+
+        if (lists.isEmpty())
+            return null;
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    private static void addLiteral(List<int[]> lists, Map<String, int[]> postings, Object pattern) {
+        if (!(pattern instanceof String))
+            return;
+        IdPattern idPattern = IdPattern.of((String) pattern);
+        if (idPattern.kind == IdPattern.Kind.LITERAL)
+            lists.add(postings.getOrDefault(idPattern.literal, new int[0]));
+    }
+
+    private static int[] postings(Map<ResourceLocation, int[]> postings, @Nullable ResourceLocation key) {
+        int[] list = key != null ? postings.get(key) : null;
+        return list != null ? list : new int[0];
+    }
+
+    /**
+     * The ingredient filters compare the full id string, ids that do not print back the same never match.
+     */
+    @Nullable
+    private static ResourceLocation itemLocation(String id) {
+        ResourceLocation location = ResourceLocation.tryParse(id);
+        return location != null && location.toString().equals(id) ? location : null;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        if (b.length == 0)
+            return a;
+        if (a.length == 0)
+            return b;
+        int[] result = new int[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                result[size++] = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                result[size++] = b[j++];
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static class PostingBuilder {
+        private int[] values = new int[4];
+        private int size;
+
+        // recipes are added in ascending order, an item used twice by one recipe is kept once
+        void add(int recipe) {
+            if (size > 0 && values[size - 1] == recipe)
+                return;
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = recipe;
+        }
+
+        int[] build() {
+            return Arrays.copyOf(values, size);
+        }
+
+        static <K> Map<K, int[]> buildAll(Map<K, PostingBuilder> builders) {
+            Map<K, int[]> postings = new HashMap<>(builders.size() * 2);
+            for (Map.Entry<K, PostingBuilder> entry : builders.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().build());
+            }
+            return postings;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.IForgeRegistry;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Immutable index of the ids of a registry, built once the registries are frozen. Ids are kept sorted with their
+ * namespace and path already split, each namespace is a contiguous bucket of the sorted ids. Also used for the
+ * recipe ids by the {@link RecipeIndex}.
+ */
+public class RegistryIdIndex {
+    public static final Holder BLOCKS = new Holder(() -> ForgeRegistries.BLOCKS);
+    public static final Holder ITEMS = new Holder(() -> ForgeRegistries.ITEMS);
+
+    private final String[] ids;
+    private final String[] paths;
+    private final Map<String, String[]> namespaceBuckets;
+    // per namespace the index of its first id and the index after its last id
+    private final Map<String, int[]> namespaceRanges;
+
+    RegistryIdIndex(Collection<ResourceLocation> locations) {
+        ResourceLocation[] sorted = locations.toArray(new ResourceLocation[0]);
+        Arrays.sort(sorted, Comparator.comparing(ResourceLocation::getNamespace).thenComparing(ResourceLocation::getPath));
+
+        ids = new String[sorted.length];
+        paths = new String[sorted.length];
+        namespaceBuckets = new HashMap<>();
+        namespaceRanges = new LinkedHashMap<>();
+        int start = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].toString();
+            paths[i] = sorted[i].getPath();
+            if (i + 1 == sorted.length || !sorted[i + 1].getNamespace().equals(sorted[i].getNamespace())) {
+                String namespace = sorted[i].getNamespace();
+                namespaceRanges.put(namespace, new int[]{start, i + 1});
+                namespaceBuckets.put(namespace, Arrays.copyOfRange(ids, start, i + 1));
+                start = i + 1;
+            }
+        }
+    }
+
+    public static void buildAll() {
+        BLOCKS.build();
+        ITEMS.build();
+    }
+
+    /**
+     * The returned arrays are shared and must not be modified.
+     */
+    public String[] getIds() {
+        return ids;
+    }
+
+    public String[] getIds(String namespace) {
+        return namespaceBuckets.getOrDefault(namespace, new String[0]);
+    }
+
+    public String[] filterContains(String part) {
+        List<String> result = new ArrayList<>();
+        for (String id : ids) {
+            if (id.contains(part))
+                result.add(id);
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * Same matching as {@link ResourceFiltering#filterIds}. Literal namespaces are looked up directly, other
+     * namespace patterns are tested once per namespace. Literal and prefix paths are found by binary search in the
+     * sorted paths of each namespace, only the remaining kinds test every path.
+     */
+    public String[] filter(IdPattern namespacePattern, IdPattern pathPattern) {
+        if (namespacePattern.kind == IdPattern.Kind.LITERAL) {
+            int[] range = namespaceRanges.get(namespacePattern.literal);
+            if (range == null)
+                return new String[0];
+            if (pathPattern.kind == IdPattern.Kind.ALL)
+                return namespaceBuckets.get(namespacePattern.literal);
+
+            List<String> result = new ArrayList<>();
+            filterPaths(range, pathPattern, result);
+            return result.toArray(new String[0]);
+        }
+        if (namespacePattern.kind == IdPattern.Kind.ALL && pathPattern.kind == IdPattern.Kind.ALL)
+            return ids;
+
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, int[]> namespace : namespaceRanges.entrySet()) {
+            if (!namespacePattern.matches(namespace.getKey()))
+                continue;
+
+            if (pathPattern.kind == IdPattern.Kind.ALL)
+                Collections.addAll(result, namespaceBuckets.get(namespace.getKey()));
+            else
+                filterPaths(namespace.getValue(), pathPattern, result);
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private void filterPaths(int[] range, IdPattern pathPattern, List<String> result) {
+        switch (pathPattern.kind) {
+            case LITERAL: {
+                int index = Arrays.binarySearch(paths, range[0], range[1], pathPattern.literal);
+                if (index >= 0)
+                    result.add(ids[index]);
+                return;
+            }
+            case PREFIX: {
+                int index = Arrays.binarySearch(paths, range[0], range[1], pathPattern.literal);
+                if (index < 0)
+                    index = -index - 1;
+                for (; index < range[1] && paths[index].startsWith(pathPattern.literal); index++) {
+                    result.add(ids[index]);
+                }
+                return;
+            }
+            default:
+                for (int i = range[0]; i < range[1]; i++) {
+                    if (pathPattern.matches(paths[i]))
+                        result.add(ids[i]);
+                }
+        }
+    }
+
+    public static class Holder {
+        private final Supplier<IForgeRegistry<?>> registry;
+        private volatile RegistryIdIndex index;
+
+        Holder(Supplier<IForgeRegistry<?>> registry) {
+            this.registry = registry;
+        }
+
+        public void build() {
+            index = new RegistryIdIndex(registry.get().getKeys());
+        }
+
+        public RegistryIdIndex get() {
+            RegistryIdIndex current = index;
+            if (current == null) {
+                build();
+                current = index;
+            }
+            return current;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.firedragon91245.cctresourceapi.cct;
 
+import dan200.computercraft.api.filesystem.IFileSystem;
 import dan200.computercraft.api.lua.*;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
@@ -14,7 +15,10 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.server.ServerLifecycleHooks;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.firedragon91245.cctresourceapi.ColorUtil;
-import org.firedragon91245.cctresourceapi.Util;
+import org.firedragon91245.cctresourceapi.CompiledPalette;
+import org.firedragon91245.cctresourceapi.ImageUtil;
+import org.firedragon91245.cctresourceapi.PaletteLut;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -23,14 +27,22 @@ import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class ResourceAPI implements ILuaAPI {
 
-    private static final Map<Object, Color> COMPUTECRAFT_PALETTE_BLIT = new HashMap<Object, Color>() {{
+    private final IComputerSystem computer;
+    private final TextureHandles textureHandles = new TextureHandles();
+
+    public ResourceAPI(IComputerSystem computer) {
+        this.computer = computer;
+    }
+
+    static final Map<Object, Color> COMPUTECRAFT_PALETTE_BLIT = new HashMap<Object, Color>() {{
         put(0, new Color(240, 240, 240));   // 1: white
         put(1, new Color(242, 178, 51));    // 2: orange
         put(2, new Color(229, 127, 216));   // 4: magenta
@@ -68,6 +80,9 @@ public class ResourceAPI implements ILuaAPI {
         put(32768, new Color(17, 17, 17));       // 32768: black
     }};
 
+    static final PaletteLut COMPUTECRAFT_PALETTE_BLIT_LUT = new PaletteLut(COMPUTECRAFT_PALETTE_BLIT);
+    private static final PaletteLut COMPUTECRAFT_PALETTE_DEC_LUT = new PaletteLut(COMPUTECRAFT_PALETTE_DEC);
+
     private static HashMap<String, Object> ingredientAsHashMap(Ingredient ingredient) {
         HashMap<String, Object> ingredientInfo = new HashMap<>();
         ingredientInfo.put("empty", ingredient.isEmpty());
@@ -129,17 +144,25 @@ public class ResourceAPI implements ILuaAPI {
         return list;
     }
 
-    private static Map<Integer, Map<Integer, Object>> bufferedImageToPixels(BufferedImage image, Map<Object, Color> colorMap) {
-        int width = image.getWidth();
-        int height = image.getHeight();
+    private static Map<Integer, Map<Integer, Object>> bufferedImageToPixels(BufferedImage image, IntFunction<Object> colorMatcher) {
+        return pixelsToMap(ImageUtil.readArgb(image), image.getWidth(), 0, image.getHeight(), colorMatcher);
+    }
+
+    /**
+     * @param argb           packed ARGB pixels, row by row
+     * @param rowStart       first row, 0 based
+     * @param rowEnd         row after the last row
+     * @param pixelConverter converts a pixel to its Lua value
+     * @return rows keyed by 1 based row index, each keyed by 1 based column
+     */
+    static Map<Integer, Map<Integer, Object>> pixelsToMap(int[] argb, int width, int rowStart, int rowEnd, IntFunction<Object> pixelConverter) {
         Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
 
-        for (int y = 0; y < height; y++) {
+        for (int y = rowStart; y < rowEnd; y++) {
             Map<Integer, Object> row = new HashMap<>();
+            int offset = y * width;
             for (int x = 0; x < width; x++) {
-                Color color = new Color(image.getRGB(x, y), true);
-                Object colorKey = findClosestCCColor(color, colorMap);
-                row.put(x + 1, colorKey);
+                row.put(x + 1, pixelConverter.apply(argb[offset + x]));
             }
             pixels.put(y + 1, row);
         }
@@ -150,12 +173,14 @@ public class ResourceAPI implements ILuaAPI {
     private static String convertBufferedImageToCCString(BufferedImage image, Map<Object, Color> colorMap) {
         int width = image.getWidth();
         int height = image.getHeight();
-        StringBuilder ccImageBuilder = new StringBuilder();
+        int[] argb = ImageUtil.readArgb(image);
+        StringBuilder ccImageBuilder = new StringBuilder(width * height + height);
+        IntFunction<Object> colorMatcher = colorMatcher(colorMap);
 
         for (int y = 0; y < height; y++) {
+            int offset = y * width;
             for (int x = 0; x < width; x++) {
-                Color color = new Color(image.getRGB(x, y), true);
-                Object ccColor = findClosestCCColor(color, colorMap);
+                Object ccColor = colorMatcher.apply(argb[offset + x]);
                 ccImageBuilder.append(ccColor);
             }
             if (y < height - 1) {
@@ -166,21 +191,12 @@ public class ResourceAPI implements ILuaAPI {
         return ccImageBuilder.toString();
     }
 
-    private static Object findClosestCCColor(Color color, Map<Object, Color> colorMap) {
-        Enumeration<Map.Entry<Object, Color>> entries = Collections.enumeration(colorMap.entrySet());
-        Map.Entry<Object, Color> firstEntry = entries.nextElement();
-        Object closestColorKey = firstEntry.getKey();
-        double closestDistance = ColorUtil.rgbDistance(color, firstEntry.getValue());
-        while(entries.hasMoreElements()) {
-            Map.Entry<Object, Color> currentEntry = entries.nextElement();
-            double distance = ColorUtil.rgbDistance(color, currentEntry.getValue());
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                closestColorKey = currentEntry.getKey();
-            }
-        }
-
-        return closestColorKey;
+    private static IntFunction<Object> colorMatcher(Map<Object, Color> colorMap) {
+        if (colorMap == COMPUTECRAFT_PALETTE_BLIT)
+            return COMPUTECRAFT_PALETTE_BLIT_LUT::lookup;
+        if (colorMap == COMPUTECRAFT_PALETTE_DEC)
+            return COMPUTECRAFT_PALETTE_DEC_LUT::lookup;
+        return CompiledPalette.compile(colorMap, ColorUtil.Metric.LAB_DE76).matcher();
     }
 
     public static HashMap<String, Object> itemStackAsHashMap(ItemStack item) {
@@ -195,26 +211,17 @@ public class ResourceAPI implements ILuaAPI {
     @LuaFunction
     final public String[] getRecipeIds(@Nullable Object filter) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
-        Stream<ResourceLocation> recipies = server.getRecipeManager().getRecipeIds();
+        RegistryIdIndex recipeIds = RecipeIndex.get(server).getIds();
         if (filter instanceof String) {
-            return recipies.map(ResourceLocation::toString)
-                    .filter(str -> !str.isEmpty() && str.contains((String) filter))
-                    .toArray(String[]::new);
+            return recipeIds.filterContains((String) filter);
         } else if (filter instanceof HashMap) {
             HashMap<String, Object> filterMap = (HashMap<String, Object>) filter;
             String modid = (String) filterMap.getOrDefault("modid", ".*");
             String recipeid = (String) filterMap.getOrDefault("recipeid", ".*");
 
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern recipeidRegex = Pattern.compile(recipeid);
-
-            return recipies.map(ResourceLocation::toString)
-                    .filter(str -> ResourceFiltering.filterIds(str, modidRegex, recipeidRegex))
-                    .toArray(String[]::new);
+            return recipeIds.filter(IdPattern.of(modid), IdPattern.of(recipeid));
         }
-        return recipies.map(ResourceLocation::toString)
-                .filter(str -> !str.isEmpty())
-                .toArray(String[]::new);
+        return recipeIds.getIds();
     }
 
     @SuppressWarnings({"unchecked", "unused"})
@@ -237,18 +244,12 @@ public class ResourceAPI implements ILuaAPI {
             String modid = (String) filterMap.getOrDefault("modid", ".*");
             String itemid = (String) filterMap.getOrDefault("itemid", ".*");
 
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(itemid);
-
-            String itemId = ForgeRegistries.ITEMS.getValues().stream()
-                    .map(it -> Util.defaultIfNull(it.getRegistryName(), new ResourceLocation("")).toString())
-                    .filter(str -> ResourceFiltering.filterIds(str, modidRegex, itemidRegex))
-                    .findFirst().orElse(null);
-
-            if(itemId == null)
+            // first match in id order, answered from the sorted item id index
+            String[] itemIds = RegistryIdIndex.ITEMS.get().filter(IdPattern.of(modid), IdPattern.of(itemid));
+            if(itemIds.length == 0)
                 return null;
 
-            ResourceLocation itemLocation = new ResourceLocation(itemId);
+            ResourceLocation itemLocation = new ResourceLocation(itemIds[0]);
             if (!ForgeRegistries.ITEMS.containsKey(itemLocation))
                 return null;
 
@@ -264,38 +265,42 @@ public class ResourceAPI implements ILuaAPI {
         {
             itemInfo.put("tags", item.getTags().stream().map(ResourceLocation::toString).toArray(String[]::new));
         }
-        if(tag.contains("m")) // m = models + textures
+        if(tag.contains("m")) // m = models + textures, b = texture bytes as binary strings, h = texture handles
         {
-            ResourceLoading.loadItemModelInfo(item, itemInfo);
+            ResourceLoading.loadItemModelInfo(item, itemInfo, tag.contains("b"), tag.contains("h") ? textureHandles : null);
         }
         return itemInfo;
     }
 
     @SuppressWarnings("unused")
     @LuaFunction
-    final public Map<Integer, Map<Integer, Object>> imageBytesToPixelsCustomColorMap(Object image, Object colorMap, String inColorFormat) throws LuaException {
-        Map<Object, Color> customColorMap;
+    final public Map<Integer, Map<Integer, Object>> imageBytesToPixelsCustomColorMap(Object image, Object colorMap, String inColorFormat, Optional<String> metricName) throws LuaException {
+        ColorUtil.Metric metric = ColorUtil.Metric.byName(metricName.orElse("lab"));
+        if (metric == null)
+            throw new LuaException("Invalid color metric");
+
+        CompiledPalette palette;
         if(inColorFormat.equals("rgb-int"))
         {
-            customColorMap = loadColorMap(colorMap, ResourceAPI::colorFromRGBInt);
+            palette = compileColorMap(colorMap, ResourceAPI::colorFromRGBInt, metric);
         }
         else if(inColorFormat.equals("rgb-table"))
         {
-            customColorMap = loadColorMap(colorMap, ResourceAPI::colorFromRGBTable);
+            palette = compileColorMap(colorMap, ResourceAPI::colorFromRGBTable, metric);
         }
         else
         {
             throw new LuaException("Invalid color format");
         }
 
-        if (customColorMap == null)
+        if (palette == null)
             throw new LuaException("Invalid custom color map");
 
-        return ResourceLoading.loadBufferedImageFromTextureObject(image, customColorMap, ResourceAPI::bufferedImageToPixels);
+        return ResourceLoading.loadBufferedImageFromTextureObject(image, null, (bufferedImage, map) -> bufferedImageToPixels(bufferedImage, palette.matcher()));
     }
 
     @SuppressWarnings("unchecked")
-    private static Color colorFromRGBTable(Object o) {
+    private static Integer colorFromRGBTable(Object o) {
         if (o instanceof Map) {
             Map<Object, Object> colorMap = (Map<Object, Object>) o;
             if (colorMap.containsKey("r") && colorMap.containsKey("g") && colorMap.containsKey("b")) {
@@ -304,17 +309,18 @@ public class ResourceAPI implements ILuaAPI {
                 Object b = colorMap.get("b");
                 Object a = colorMap.getOrDefault("a", 255D);
                 if (r instanceof Double && g instanceof Double && b instanceof Double && a instanceof Double) {
-                    return new Color(((Double) r).intValue(), ((Double) g).intValue(), ((Double) b).intValue(), ((Double) a).intValue());
+                    return (((Double) a).intValue() & 0xFF) << 24 | (((Double) r).intValue() & 0xFF) << 16
+                            | (((Double) g).intValue() & 0xFF) << 8 | (((Double) b).intValue() & 0xFF);
                 }
             }
         }
         return null;
     }
 
-    private static Color colorFromRGBInt(Object o) {
+    private static Integer colorFromRGBInt(Object o) {
         if (o instanceof Double) {
             int color = ((Double) o).intValue();
-            return new Color(color);
+            return 0xFF000000 | color;
         }
         return null;
     }
@@ -322,83 +328,150 @@ public class ResourceAPI implements ILuaAPI {
     @SuppressWarnings("unused")
     @LuaFunction
     final public Map<Integer, Map<Integer, Object>> imageBytesToPixels(Object image, String colorFormat) throws LuaException {
+        BufferedImage bufferedImage = ResourceLoading.loadBufferedImageFromTextureObject(image, null, (img, colorMap) -> img);
+        if (bufferedImage == null)
+            return null;
+        return imageToPixels(bufferedImage, colorFormat);
+    }
+
+    static Map<Integer, Map<Integer, Object>> imageToPixels(BufferedImage image, String colorFormat) throws LuaException {
+        return bufferedImageToPixels(image, pixelConverter(colorFormat));
+    }
+
+    static IntFunction<Object> pixelConverter(String colorFormat) throws LuaException {
         if (colorFormat == null || colorFormat.isEmpty() || colorFormat.equals("blit")) {
-            return ResourceLoading.loadBufferedImageFromTextureObject(image, COMPUTECRAFT_PALETTE_BLIT, ResourceAPI::bufferedImageToPixels);
+            return COMPUTECRAFT_PALETTE_BLIT_LUT::lookup;
         } else if (colorFormat.equals("decimal")) {
-            return ResourceLoading.loadBufferedImageFromTextureObject(image, COMPUTECRAFT_PALETTE_DEC, ResourceAPI::bufferedImageToPixels);
+            return COMPUTECRAFT_PALETTE_DEC_LUT::lookup;
         } else if (colorFormat.equals("rgb-int")) {
-            return ResourceLoading.loadBufferedImageFromTextureObject(image, null, ResourceAPI::bufferedImageToPixelsRGB);
+            return argb -> argb;
         } else if (colorFormat.equals("rgb-table")) {
-            return ResourceLoading.loadBufferedImageFromTextureObject(image, null, ResourceAPI::bufferedImageToPixelsRGBTable);
+            return ResourceAPI::pixelToRGBTable;
         } else {
             throw new LuaException("Invalid color format");
         }
     }
 
+    static String imageToCCString(BufferedImage image) {
+        return convertBufferedImageToCCString(image, COMPUTECRAFT_PALETTE_BLIT);
+    }
+
     @SuppressWarnings("unchecked")
-    private Map<Object, Color> loadColorMap(@Nullable Object customColorMap, Function<Object, Color> converter) throws LuaException {
+    private static CompiledPalette compileColorMap(@Nullable Object customColorMap, Function<Object, Integer> converter, ColorUtil.Metric metric) throws LuaException {
         if (customColorMap instanceof Map) {
             Map<Object, Object> rawMap = (Map<Object, Object>) customColorMap;
-            Map<Object, Color> colorMap = new HashMap<>();
+            Object[] keys = new Object[rawMap.size()];
+            int[] colors = new int[rawMap.size()];
+            int size = 0;
             for (Map.Entry<Object, Object> rawEntry : rawMap.entrySet())
             {
                 Object key = rawEntry.getKey();
                 Object value = rawEntry.getValue();
                 if (key == null || value == null)
                     continue;
-                @Nullable Color color = converter.apply(value);
+                @Nullable Integer color = converter.apply(value);
                 if (color == null)
                     throw new LuaException("Malformed custom color map entry");
-                colorMap.put(key, color);
+                keys[size] = key;
+                colors[size] = color;
+                size++;
             }
-            return colorMap;
+            if (size == 0)
+                return null;
+            // compiled palettes are cached by content, so a palette used again skips conversion and tree building
+            return CompiledPalette.compile(Arrays.copyOf(keys, size), Arrays.copyOf(colors, size), metric);
         }
         return null;
     }
 
-    private static Map<Integer, Map<Integer, Object>> bufferedImageToPixelsRGBTable(BufferedImage bufferedImage, @Nullable Map<Object, Color> objectColorMap) {
-        int width = bufferedImage.getWidth();
-        int height = bufferedImage.getHeight();
-        Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
+    private static Map<String, Object> pixelToRGBTable(int argb) {
+        Map<String, Object> channels = new HashMap<>(8);
+        channels.put("r", argb >> 16 & 0xFF);
+        channels.put("g", argb >> 8 & 0xFF);
+        channels.put("b", argb & 0xFF);
+        channels.put("a", argb >>> 24);
+        return channels;
+    }
 
-        for (int y = 0; y < height; y++) {
-            Map<Integer, Object> row = new HashMap<>();
-            for (int x = 0; x < width; x++) {
-                Color color = new Color(bufferedImage.getRGB(x, y), true);
-                row.put(x + 1, new HashMap<String, Object>() {{
-                    put("r", color.getRed());
-                    put("g", color.getGreen());
-                    put("b", color.getBlue());
-                    put("a", color.getAlpha());
-                }});
-            }
-            pixels.put(y + 1, row);
-        }
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public String imageBytesToCCFormat(Object image) throws LuaException {
+        return ResourceLoading.loadBufferedImageFromTextureObject(image, COMPUTECRAFT_PALETTE_BLIT, ResourceAPI::convertBufferedImageToCCString);
+    }
 
-        return pixels;
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Object imageBytesToBlit(Object image, Optional<String> mode) throws LuaException {
+        BufferedImage bufferedImage = ResourceLoading.loadBufferedImageFromTextureObject(image, null, (img, colorMap) -> img);
+        if (bufferedImage == null)
+            return null;
+        return BlitOutput.convert(bufferedImage, mode.orElse("rows"));
     }
 
-    private static Map<Integer, Map<Integer, Object>> bufferedImageToPixelsRGB(BufferedImage bufferedImage, Map<Object, Color> objectColorMap) {
-        int width = bufferedImage.getWidth();
-        int height = bufferedImage.getHeight();
-        Map<Integer, Map<Integer, Object>> pixels = new HashMap<>();
+    /**
+     * Converts a texture (by texture id or texture handle id) and writes it to a file on this computer.
+     * @return the number of bytes written
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public long exportTexture(Object texture, String path, Optional<String> format) throws LuaException {
+        IFileSystem fileSystem = computer.getFileSystem();
+        if (fileSystem == null)
+            throw new LuaException("Computer has no file system");
+        return TextureExport.export(fileSystem, path, resolveTexture(texture), format.orElse("nfp"));
+    }
 
-        for (int y = 0; y < height; y++) {
-            Map<Integer, Object> row = new HashMap<>();
-            for (int x = 0; x < width; x++) {
-                Color color = new Color(bufferedImage.getRGB(x, y), true);
-                row.put(x + 1, color.getRGB());
-            }
-            pixels.put(y + 1, row);
-        }
+    private ModelTexture resolveTexture(Object texture) throws LuaException {
+        if (texture instanceof Number)
+            return textureHandles.getTexture(((Number) texture).intValue());
+        if (texture instanceof String)
+            return TextureStore.getTexture((String) texture).orElseThrow(() -> new LuaException("Unknown texture " + texture));
+        throw new LuaException("Expected a texture id or texture handle id");
+    }
 
-        return pixels;
+    /**
+     * Opens a conversion that is read out in row ranges, the decoded pixels stay on the server between reads.
+     * @param image a texture table, binary image string or texture handle id
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public ConversionJob openConversion(Object image, Optional<String> colorFormat) throws LuaException {
+        IntFunction<Object> pixelConverter = pixelConverter(colorFormat.orElse("blit"));
+        return new ConversionJob(resolveImage(image, false), pixelConverter);
     }
 
+    /**
+     * Runs the image operations (see {@link ImagePipeline}) on the server and converts the result to pixels.
+     * @param image a texture table, binary image string or texture handle id
+     */
     @SuppressWarnings("unused")
     @LuaFunction
-    final public String imageBytesToCCFormat(Object image) throws LuaException {
-        return ResourceLoading.loadBufferedImageFromTextureObject(image, COMPUTECRAFT_PALETTE_BLIT, ResourceAPI::convertBufferedImageToCCString);
+    final public Map<Integer, Map<Integer, Object>> renderImage(Object image, Map<?, ?> operations, Optional<String> colorFormat) throws LuaException {
+        IntFunction<Object> pixelConverter = pixelConverter(colorFormat.orElse("blit"));
+        BufferedImage result = ImagePipeline.parse(operations, this::resolveImage).apply(resolveImage(image, false));
+        return bufferedImageToPixels(result, pixelConverter);
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Object renderImageToBlit(Object image, Map<?, ?> operations, Optional<String> mode) throws LuaException {
+        ImagePipeline pipeline = ImagePipeline.parse(operations, this::resolveImage);
+        return BlitOutput.convert(pipeline.apply(resolveImage(image, false)), mode.orElse("rows"));
+    }
+
+    /**
+     * @param isTexture strings are texture ids instead of binary images
+     */
+    private BufferedImage resolveImage(Object image, boolean isTexture) throws LuaException {
+        BufferedImage bufferedImage;
+        if (image instanceof Number || (isTexture && image instanceof String)) {
+            bufferedImage = TextureStore.getImage(resolveTexture(image));
+        } else {
+            bufferedImage = ResourceLoading.loadBufferedImageFromTextureObject(image, null, (img, colorMap) -> img);
+        }
+        if (bufferedImage == null)
+            throw new LuaException("Failed to read image");
+        return bufferedImage;
     }
 
     private static void addRecipeToMap(Map<String, Object> recipeMap, IRecipe<?> recipe)
@@ -420,19 +493,18 @@ public class ResourceAPI implements ILuaAPI {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (filter instanceof String) {
             String recipeId = (String) filter;
-            ResourceLocation recipeLocation = new ResourceLocation(recipeId);
-            Collection<IRecipe<?>> recipes = server.getRecipeManager().getRecipes();
-            recipes.stream().filter(recipe -> recipe.getId().equals(recipeLocation)).findFirst().ifPresent(recipe -> addRecipeToMap(recipeInfo, recipe));
+            IRecipe<?> recipe = RecipeIndex.get(server).getRecipe(new ResourceLocation(recipeId));
+            if (recipe != null)
+                addRecipeToMap(recipeInfo, recipe);
             return recipeInfo;
         } else if (filter instanceof Map) {
             Map<String, Object> filterMap = (Map<String, Object>) filter;
 
-            Predicate<IRecipe<?>> simpleFilter = ResourceFiltering.assembleRecipeSimpleFilter(filterMap);
-            Predicate<IRecipe<?>> resultFilter = ResourceFiltering.assembleRecipeResultFilter(filterMap);
-            Predicate<IRecipe<?>> ingredientFilter = ResourceFiltering.assembleRecipeIngredientFilter(filterMap);
+            Predicate<IRecipe<?>> recipeFilter = ResourceFiltering.compileRecipeFilter(filterMap);
 
-            Collection<IRecipe<?>> recipes = server.getRecipeManager().getRecipes();
-            recipes.stream().filter(simpleFilter.and(resultFilter).and(ingredientFilter)).findFirst().ifPresent(recipe -> addRecipeToMap(recipeInfo, recipe));
+            IRecipe<?> recipe = RecipeIndex.get(server).findFirst(filterMap, recipeFilter);
+            if (recipe != null)
+                addRecipeToMap(recipeInfo, recipe);
 
             return recipeInfo;
         }
@@ -442,57 +514,45 @@ public class ResourceAPI implements ILuaAPI {
     @SuppressWarnings({"unchecked", "unused"})
     @LuaFunction
     final public String[] getBlockIds(@Nullable Object filter) {
+        RegistryIdIndex index = RegistryIdIndex.BLOCKS.get();
         if (filter instanceof String) {
-            return ForgeRegistries.BLOCKS.getValues().stream()
-                    .map(block -> Util.defaultIfNull(block.getRegistryName(), new ResourceLocation("")).toString())
-                    .filter(str -> !str.isEmpty() && str.contains((String) filter))
-                    .toArray(String[]::new);
+            return index.filterContains((String) filter);
         } else if (filter instanceof HashMap) {
             HashMap<String, Object> filterMap = (HashMap<String, Object>) filter;
             String modid = (String) filterMap.getOrDefault("modid", ".*");
             String blockid = (String) filterMap.getOrDefault("blockid", ".*");
 
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(blockid);
-
-            return ForgeRegistries.BLOCKS.getValues().stream()
-                    .map(block -> Util.defaultIfNull(block.getRegistryName(), new ResourceLocation("")).toString())
-                    .filter(str -> ResourceFiltering.filterIds(str, modidRegex, itemidRegex))
-                    .toArray(String[]::new);
-
+            return index.filter(IdPattern.of(modid), IdPattern.of(blockid));
         }
-        return ForgeRegistries.BLOCKS.getValues().stream()
-                .map(block -> Util.defaultIfNull(block.getRegistryName(), new ResourceLocation("")).toString())
-                .filter(str -> !str.isEmpty())
-                .toArray(String[]::new);
+        return index.getIds();
     }
 
     @SuppressWarnings({"unchecked", "unused"})
     @LuaFunction
     final public String[] getItemIds(@Nullable Object filter) {
+        RegistryIdIndex index = RegistryIdIndex.ITEMS.get();
         if (filter instanceof String) {
-            return ForgeRegistries.ITEMS.getValues().stream()
-                    .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                    .filter(str -> !str.isEmpty() && str.contains((String) filter))
-                    .toArray(String[]::new);
+            return index.filterContains((String) filter);
         } else if (filter instanceof HashMap) {
             HashMap<String, Object> filterMap = (HashMap<String, Object>) filter;
             String modid = (String) filterMap.getOrDefault("modid", ".*");
             String itemid = (String) filterMap.getOrDefault("itemid", ".*");
 
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(itemid);
-
-            return ForgeRegistries.ITEMS.getValues().stream()
-                    .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                    .filter(str -> ResourceFiltering.filterIds(str, modidRegex, itemidRegex))
-                    .toArray(String[]::new);
+            return index.filter(IdPattern.of(modid), IdPattern.of(itemid));
+        }
+        return index.getIds();
+    }
 
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public String[] listAssets(String namespace, String kind, Optional<String> pattern) throws LuaException {
+        Pattern regex;
+        try {
+            regex = pattern.map(Pattern::compile).orElse(null);
+        } catch (PatternSyntaxException e) {
+            throw new LuaException("Invalid pattern: " + e.getDescription());
         }
-        return ForgeRegistries.ITEMS.getValues().stream()
-                .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                .filter(str -> !str.isEmpty())
-                .toArray(String[]::new);
+        return AssetIndex.listAssets(namespace, kind, regex).toArray(new String[0]);
     }
 
     @SuppressWarnings("unused")
@@ -511,8 +571,8 @@ public class ResourceAPI implements ILuaAPI {
         if (flags.contains("t")) { // t = tags
             blockInfo.put("tags", Objects.requireNonNull(b).getTags().stream().map(ResourceLocation::toString).toArray(String[]::new));
         }
-        if (flags.contains("m")) { // m = moodels + textures
-            ResourceLoading.loadBlockModelInfo(Objects.requireNonNull(b), blockInfo);
+        if (flags.contains("m")) { // m = moodels + textures, b = texture bytes as binary strings, h = texture handles
+            ResourceLoading.loadBlockModelInfo(Objects.requireNonNull(b), blockInfo, flags.contains("b"), flags.contains("h") ? textureHandles : null);
         }
 
         return blockInfo;
@@ -533,18 +593,20 @@ public class ResourceAPI implements ILuaAPI {
     @Override
     public void update() {
         ILuaAPI.super.update();
+        textureHandles.evictExpired();
     }
 
     @Override
     public void shutdown() {
         ILuaAPI.super.shutdown();
+        textureHandles.releaseAll();
     }
 
     public static class Factory implements ILuaAPIFactory {
         @Nullable
         @Override
         public ILuaAPI create(@Nonnull IComputerSystem iComputerSystem) {
-            return new ResourceAPI();
+            return new ResourceAPI(iComputerSystem);
         }
     }
 }
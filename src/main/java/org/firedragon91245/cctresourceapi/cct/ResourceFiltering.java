@@ -8,254 +8,21 @@ import net.minecraft.nbt.*;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import org.firedragon91245.cctresourceapi.Util;
+import org.firedragon91245.cctresourceapi.cache.LruCache;
 
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class ResourceFiltering {
-    protected static boolean filterIds(String toFilter, Pattern modidRegex, Pattern idRegex) {
-        if (toFilter.isEmpty())
-            return false;
+    private static final ResourceLocation EMPTY_LOCATION = new ResourceLocation("");
+    private static final LruCache<String, Predicate<IRecipe<?>>> RECIPE_FILTERS = new LruCache<>(() -> 128, () -> Long.MAX_VALUE, filter -> 1);
 
-        String[] parts = toFilter.split(":");
-        if (parts.length != 2)
+    protected static boolean filterIds(String toFilter, IdPattern modidRegex, IdPattern idRegex) {
+        int separator = toFilter.indexOf(':');
+        if (separator < 0 || separator + 1 == toFilter.length() || toFilter.indexOf(':', separator + 1) >= 0)
             return false;
 
-        Matcher modidMatcher = modidRegex.matcher(parts[0]);
-        Matcher blockidMatcher = idRegex.matcher(parts[1]);
-        return modidMatcher.matches() && blockidMatcher.matches();
-    }
-
-    @SuppressWarnings("unchecked")
-    protected static Predicate<IRecipe<?>> assembleRecipeIngredientFilter(Map<String, Object> filterMap) {
-        if(!filterMap.containsKey("ingredients"))
-            return recipe -> true;
-
-        Object ingredientsFilter = filterMap.get("ingredients");
-        if(ingredientsFilter instanceof Map)
-        {
-            Map<Object, Object> ingredientsFilterMap = (Map<Object, Object>) ingredientsFilter;
-            return recipe -> matchIngredients(recipe.getIngredients(), ingredientsFilterMap);
-        } else if (ingredientsFilter instanceof String) {
-            String ingredientsId = (String) ingredientsFilter;
-            return recipe -> {
-                NonNullList<Ingredient> ingredients = recipe.getIngredients();
-                return ingredients.stream()
-                        .map(Ingredient::getItems)
-                        .flatMap(Arrays::stream)
-                        .map(ItemStack::getItem)
-                        .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                        .allMatch(str -> str.equals(ingredientsId));
-            };
-        }
-
-        return recipe -> true;
-    }
-
-    @SuppressWarnings("unchecked")
-    private static boolean matchIngredients(NonNullList<Ingredient> ingredients, Map<Object, Object> ingredientsFilterMap) {
-        if(ingredientsFilterMap.containsKey("count"))
-        {
-            Integer count = Util.objectToInt(ingredientsFilterMap.get("count"));
-            if(count == null)
-                return false;
-
-            int ingredientCount = countIngredients(ingredients);
-
-            if(ingredientCount != count)
-                return false;
-        }
-        if(ingredientsFilterMap.containsKey("itemid") || ingredientsFilterMap.containsKey("modid"))
-        {
-            String modid = (String) ingredientsFilterMap.getOrDefault("modid", ".*");
-            String itemid = (String) ingredientsFilterMap.getOrDefault("itemid", ".*");
-
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(itemid);
-
-            boolean allMatch = matchIngedients(ingredients, modidRegex, itemidRegex);
-            if(!allMatch)
-                return false;
-        }
-        Map<String, Integer> specificItemCounts = filterSpecificItemFilters(ingredientsFilterMap);
-        if(!specificItemCounts.isEmpty()){
-            for (Map.Entry<String, Integer> entry : specificItemCounts.entrySet()) {
-                String[] parts = entry.getKey().split(":");
-                String modid = parts[0];
-                String itemid = parts[1];
-
-                Pattern modidRegex = Pattern.compile(modid);
-                Pattern itemidRegex = Pattern.compile(itemid);
-
-                int ingredientCount = countIngredientsFiltered(ingredients, item -> {
-                    ResourceLocation resourceLocation = Util.defaultIfNull(item.getRegistryName(), new ResourceLocation(""));
-                    return modidRegex.matcher(resourceLocation.getNamespace()).matches() && itemidRegex.matcher(resourceLocation.getPath()).matches();
-                });
-
-                if(ingredientCount != entry.getValue())
-                    return false;
-            }
-        }
-        Map<Integer, Object> ingredientFilters = ingredientsFilterMap.entrySet().stream()
-                .filter(entry -> Util.objectToInt(entry.getKey()) != null)
-                .collect(Collectors.toMap(entry -> Util.objectToInt(entry.getKey()), Map.Entry::getValue));
-        if(!ingredientFilters.isEmpty())
-        {
-            for (Map.Entry<Integer, Object> entry : ingredientFilters.entrySet()) {
-                int index = entry.getKey();
-                Object filter = entry.getValue();
-
-                if(filter instanceof Map)
-                {
-                    Ingredient ingredient = Util.safeGetIndex(ingredients, index - 1);
-                    if(ingredient == null)
-                        return false;
-                    boolean match = matchIngredient(ingredient, (Map<Object, Object>) filter);
-                    if(!match)
-                        return false;
-                } else if (filter instanceof String) {
-                    Ingredient ingredient = Util.safeGetIndex(ingredients, index - 1);
-                    if(ingredient == null)
-                        return false;
-                    boolean allMatch = Arrays.stream(ingredient.getItems())
-                            .map(ItemStack::getItem)
-                            .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                            .allMatch(str -> str.equals(filter));
-                    if(!allMatch)
-                        return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    private static Map<String, Integer> filterSpecificItemFilters(Map<Object, Object> ingredientsFilterMap) {
-        return ingredientsFilterMap.entrySet().stream()
-                .filter(entry -> entry.getKey() instanceof String && Util.objectToInt(entry.getValue()) != null)
-                .map(entry -> new AbstractMap.SimpleEntry<>((String) entry.getKey(), Util.objectToInt(entry.getValue())))
-                .filter(entry -> Util.countChar(entry.getKey(), ':') == 1)
-                .collect(Collectors.toMap(AbstractMap.SimpleEntry::getKey, AbstractMap.SimpleEntry::getValue));
-    }
-
-    @SuppressWarnings("unchecked")
-    private static boolean matchIngredient(Ingredient ingredient, Map<Object, Object> filter) {
-        if(filter.containsKey("count"))
-        {
-            Integer count = Util.objectToInt(filter.get("count"));
-            if(count == null)
-                return false;
-
-            int ingredientCount = Arrays.stream(ingredient.getItems())
-                    .map(ItemStack::getCount)
-                    .reduce(0, Integer::sum);
-
-            if(ingredientCount != count)
-                return false;
-        }
-        if(filter.containsKey("itemid") || filter.containsKey("modid"))
-        {
-            String modid = (String) filter.getOrDefault("modid", ".*");
-            String itemid = (String) filter.getOrDefault("itemid", ".*");
-
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(itemid);
-
-            boolean allMatch = Arrays.stream(ingredient.getItems())
-                    .map(ItemStack::getItem)
-                    .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")).toString())
-                    .allMatch(str -> modidRegex.matcher(str).matches() && itemidRegex.matcher(str).matches());
-            if(!allMatch)
-                return false;
-        }
-        Map<String, Integer> specificItemCounts = filterSpecificItemFilters(filter);
-        if(!specificItemCounts.isEmpty()){
-            for (Map.Entry<String, Integer> entry : specificItemCounts.entrySet()) {
-                String[] parts = entry.getKey().split(":");
-                String modid = parts[0];
-                String itemid = parts[1];
-
-                Pattern modidRegex = Pattern.compile(modid);
-                Pattern itemidRegex = Pattern.compile(itemid);
-
-                int ingredientCount = Arrays.stream(ingredient.getItems())
-                        .filter(item -> {
-                            ResourceLocation resourceLocation = Util.defaultIfNull(item.getItem().getRegistryName(), new ResourceLocation(""));
-                            return modidRegex.matcher(resourceLocation.getNamespace()).matches() && itemidRegex.matcher(resourceLocation.getPath()).matches();
-                        })
-                        .map(ItemStack::getCount)
-                        .reduce(0, Integer::sum);
-
-                if(ingredientCount != entry.getValue())
-                    return false;
-            }
-        }
-        Map<Integer, Object> itemStackFilters = filter.entrySet().stream()
-                .filter(entry -> Util.objectToInt(entry.getKey()) != null)
-                .collect(Collectors.toMap(entry -> Util.objectToInt(entry.getKey()), Map.Entry::getValue));
-        if(!itemStackFilters.isEmpty())
-        {
-            for (Map.Entry<Integer, Object> entry : itemStackFilters.entrySet()) {
-                int index = entry.getKey();
-                Object filterObj = entry.getValue();
-
-                ItemStack itemStack = Util.safeGetIndex(ingredient.getItems(), index - 1);
-                if(itemStack == null)
-                    return false;
-
-                if(filterObj instanceof Map)
-                {
-                    boolean match = matchItemStack(itemStack, (Map<Object, Object>) filterObj);
-                    if(!match)
-                        return false;
-                } else if (filterObj instanceof String) {
-                    boolean allMatch = Util.defaultIfNull(itemStack.getItem().getRegistryName(), new ResourceLocation("")).toString().equals(filterObj);
-                    if(!allMatch)
-                        return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    @SuppressWarnings("unchecked")
-    private static boolean matchItemStack(ItemStack itemStack, Map<Object, Object> filterObj) {
-        if(filterObj.containsKey("count"))
-        {
-            Integer count = Util.objectToInt(filterObj.get("count"));
-            if(count == null)
-                return false;
-
-            if(itemStack.getCount() != count)
-                return false;
-        }
-        if(filterObj.containsKey("itemid") || filterObj.containsKey("modid"))
-        {
-            String modid = (String) filterObj.getOrDefault("modid", ".*");
-            String itemid = (String) filterObj.getOrDefault("itemid", ".*");
-
-            Pattern modidRegex = Pattern.compile(modid);
-            Pattern itemidRegex = Pattern.compile(itemid);
-
-            String itemStackId = Util.defaultIfNull(itemStack.getItem().getRegistryName(), new ResourceLocation("")).toString();
-            if(!modidRegex.matcher(itemStackId).matches() || !itemidRegex.matcher(itemStackId).matches())
-                return false;
-        }
-        if(filterObj.containsKey("nbt"))
-        {
-            Object nbtObj = filterObj.get("nbt");
-            if(nbtObj instanceof Map)
-            {
-                return matchNBT(itemStack.getTag(), (Map<Object, Object>) nbtObj);
-            }
-            else
-            {
-                return false;
-            }
-        }
-        return true;
+        return modidRegex.matches(toFilter, 0, separator) && idRegex.matches(toFilter, separator + 1, toFilter.length());
     }
 
     @SuppressWarnings("unchecked")
@@ -410,69 +177,355 @@ public class ResourceFiltering {
         return true;
     }
 
-    private static int countIngredientsFiltered(NonNullList<Ingredient> ingredients, Predicate<Item> filter) {
-        return ingredients.stream()
-                .map(Ingredient::getItems)
-                .flatMap(Arrays::stream)
-                .filter(stack -> filter.test(stack.getItem()))
-                .map(ItemStack::getCount)
-                .reduce(0, Integer::sum);
+    /**
+     * Compiles a recipe filter table into one predicate. All patterns, counts and index filters are resolved here,
+     * matching a recipe only walks its ingredients. Compiled filters are cached by the content of the table.
+     */
+    protected static Predicate<IRecipe<?>> compileRecipeFilter(Map<String, Object> filterMap) {
+        String key = filterKey(filterMap);
+        Predicate<IRecipe<?>> cached = RECIPE_FILTERS.get(key);
+        if (cached != null)
+            return cached;
+
+        Predicate<IRecipe<?>> simpleFilter = compileRecipeSimpleFilter(filterMap);
+        Predicate<IRecipe<?>> resultFilter = compileRecipeResultFilter(filterMap);
+        Predicate<IRecipe<?>> ingredientFilter = compileRecipeIngredientFilter(filterMap);
+        Predicate<IRecipe<?>> filter = recipe -> simpleFilter.test(recipe) && resultFilter.test(recipe) && ingredientFilter.test(recipe);
+        RECIPE_FILTERS.put(key, filter);
+        return filter;
+    }
+
+    /**
+     * Canonical text of a filter table, equal for tables with the same content regardless of iteration order.
+     */
+    private static String filterKey(Object filter) {
+        StringBuilder builder = new StringBuilder();
+        appendFilterKey(builder, filter);
+        return builder.toString();
+    }
+
+    private static void appendFilterKey(StringBuilder builder, Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                StringBuilder keyBuilder = new StringBuilder();
+                appendFilterKey(keyBuilder, entry.getKey());
+                sorted.put(keyBuilder.toString(), entry.getValue());
+            }
+            builder.append('{');
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                builder.append(entry.getKey()).append('=');
+                appendFilterKey(builder, entry.getValue());
+                builder.append(',');
+            }
+            builder.append('}');
+        } else if (value instanceof List) {
+            builder.append('[');
+            for (Object element : (List<?>) value) {
+                appendFilterKey(builder, element);
+                builder.append(',');
+            }
+            builder.append(']');
+        } else if (value instanceof String) {
+            String string = (String) value;
+            builder.append('s').append(string.length()).append(':').append(string);
+        } else if (value == null) {
+            builder.append("null");
+        } else {
+            // type matters, the nbt filter tells numbers apart by class
+            builder.append(value.getClass().getSimpleName()).append(':').append(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<IRecipe<?>> compileRecipeIngredientFilter(Map<String, Object> filterMap) {
+        Object ingredientsFilter = filterMap.get("ingredients");
+        if (ingredientsFilter instanceof Map) {
+            Predicate<NonNullList<Ingredient>> ingredientsMatcher = compileIngredientsFilter((Map<Object, Object>) ingredientsFilter);
+            return recipe -> ingredientsMatcher.test(recipe.getIngredients());
+        } else if (ingredientsFilter instanceof String) {
+            ItemIdMatcher idMatcher = new ItemIdMatcher((String) ingredientsFilter);
+            return recipe -> {
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    for (ItemStack stack : ingredient.getItems()) {
+                        if (!idMatcher.test(stack.getItem()))
+                            return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return recipe -> true;
     }
 
-    private static boolean matchIngedients(NonNullList<Ingredient> ingredients, Pattern modidRegex, Pattern itemidRegex) {
-        return ingredients.stream()
-                .map(Ingredient::getItems)
-                .flatMap(Arrays::stream)
-                .map(ItemStack::getItem)
-                .map(item -> Util.defaultIfNull(item.getRegistryName(), new ResourceLocation("")))
-                .allMatch(resourceLocation ->
-                        modidRegex.matcher(resourceLocation.getNamespace()).matches() && itemidRegex.matcher(resourceLocation.getPath()).matches());
+    @SuppressWarnings("unchecked")
+    private static Predicate<NonNullList<Ingredient>> compileIngredientsFilter(Map<Object, Object> filter) {
+        List<Predicate<NonNullList<Ingredient>>> checks = new ArrayList<>();
+        if (filter.containsKey("count")) {
+            Integer count = Util.objectToInt(filter.get("count"));
+            if (count == null)
+                return ingredients -> false;
+            checks.add(ingredients -> countIngredients(ingredients, null) == count);
+        }
+        if (filter.containsKey("itemid") || filter.containsKey("modid")) {
+            IdPattern modidRegex = IdPattern.of((String) filter.getOrDefault("modid", ".*"));
+            IdPattern itemidRegex = IdPattern.of((String) filter.getOrDefault("itemid", ".*"));
+            checks.add(ingredients -> {
+                for (Ingredient ingredient : ingredients) {
+                    for (ItemStack stack : ingredient.getItems()) {
+                        ResourceLocation location = registryName(stack.getItem());
+                        if (!modidRegex.matches(location.getNamespace()) || !itemidRegex.matches(location.getPath()))
+                            return false;
+                    }
+                }
+                return true;
+            });
+        }
+        for (SpecificItemCount specificCount : compileSpecificItemCounts(filter)) {
+            checks.add(ingredients -> countIngredients(ingredients, specificCount) == specificCount.count);
+        }
+        for (Map.Entry<Integer, Object> entry : indexFilters(filter).entrySet()) {
+            int index = entry.getKey() - 1;
+            Predicate<Ingredient> ingredientMatcher;
+            if (entry.getValue() instanceof Map) {
+                ingredientMatcher = compileIngredientFilter((Map<Object, Object>) entry.getValue());
+            } else if (entry.getValue() instanceof String) {
+                ItemIdMatcher idMatcher = new ItemIdMatcher((String) entry.getValue());
+                ingredientMatcher = ingredient -> {
+                    for (ItemStack stack : ingredient.getItems()) {
+                        if (!idMatcher.test(stack.getItem()))
+                            return false;
+                    }
+                    return true;
+                };
+            } else {
+                continue;
+            }
+            checks.add(ingredients -> {
+                Ingredient ingredient = Util.safeGetIndex(ingredients, index);
+                return ingredient != null && ingredientMatcher.test(ingredient);
+            });
+        }
+        return allOf(checks);
     }
 
-    private static int countIngredients(NonNullList<Ingredient> ingredients) {
-        return ingredients.stream()
-                .map(Ingredient::getItems)
-                .flatMap(Arrays::stream)
-                .map(ItemStack::getCount)
-                .reduce(0, Integer::sum);
+    @SuppressWarnings("unchecked")
+    private static Predicate<Ingredient> compileIngredientFilter(Map<Object, Object> filter) {
+        List<Predicate<Ingredient>> checks = new ArrayList<>();
+        if (filter.containsKey("count")) {
+            Integer count = Util.objectToInt(filter.get("count"));
+            if (count == null)
+                return ingredient -> false;
+            checks.add(ingredient -> countStacks(ingredient.getItems(), null) == count);
+        }
+        if (filter.containsKey("itemid") || filter.containsKey("modid")) {
+            FullIdMatcher idMatcher = new FullIdMatcher(filter);
+            checks.add(ingredient -> {
+                for (ItemStack stack : ingredient.getItems()) {
+                    if (!idMatcher.test(stack))
+                        return false;
+                }
+                return true;
+            });
+        }
+        for (SpecificItemCount specificCount : compileSpecificItemCounts(filter)) {
+            checks.add(ingredient -> countStacks(ingredient.getItems(), specificCount) == specificCount.count);
+        }
+        for (Map.Entry<Integer, Object> entry : indexFilters(filter).entrySet()) {
+            int index = entry.getKey() - 1;
+            Predicate<ItemStack> stackMatcher;
+            if (entry.getValue() instanceof Map) {
+                stackMatcher = compileItemStackFilter((Map<Object, Object>) entry.getValue());
+            } else if (entry.getValue() instanceof String) {
+                ItemIdMatcher idMatcher = new ItemIdMatcher((String) entry.getValue());
+                stackMatcher = stack -> idMatcher.test(stack.getItem());
+            } else {
+                stackMatcher = stack -> true;
+            }
+            Predicate<ItemStack> indexMatcher = stackMatcher;
+            checks.add(ingredient -> {
+                ItemStack stack = Util.safeGetIndex(ingredient.getItems(), index);
+                return stack != null && indexMatcher.test(stack);
+            });
+        }
+        return allOf(checks);
     }
 
     @SuppressWarnings("unchecked")
-    protected static Predicate<IRecipe<?>> assembleRecipeResultFilter(Map<String, Object> filterMap) {
-        if(!filterMap.containsKey("result"))
-            return recipe -> true;
+    private static Predicate<ItemStack> compileItemStackFilter(Map<Object, Object> filter) {
+        List<Predicate<ItemStack>> checks = new ArrayList<>();
+        if (filter.containsKey("count")) {
+            Integer count = Util.objectToInt(filter.get("count"));
+            if (count == null)
+                return stack -> false;
+            checks.add(stack -> stack.getCount() == count);
+        }
+        if (filter.containsKey("itemid") || filter.containsKey("modid")) {
+            checks.add(new FullIdMatcher(filter));
+        }
+        if (filter.containsKey("nbt")) {
+            Object nbtObj = filter.get("nbt");
+            if (!(nbtObj instanceof Map))
+                return stack -> false;
+            Map<Object, Object> nbtFilter = (Map<Object, Object>) nbtObj;
+            checks.add(stack -> matchNBT(stack.getTag(), nbtFilter));
+        }
+        return allOf(checks);
+    }
 
+    private static <T> Predicate<T> allOf(List<Predicate<T>> checks) {
+        if (checks.isEmpty())
+            return value -> true;
+        if (checks.size() == 1)
+            return checks.get(0);
+
+        @SuppressWarnings("unchecked")
+        Predicate<T>[] checkArray = checks.toArray(new Predicate[0]);
+        return value -> {
+            for (Predicate<T> check : checkArray) {
+                if (!check.test(value))
+                    return false;
+            }
+            return true;
+        };
+    }
+
+    private static List<SpecificItemCount> compileSpecificItemCounts(Map<Object, Object> filter) {
+        List<SpecificItemCount> counts = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : filter.entrySet()) {
+            if (!(entry.getKey() instanceof String) || Util.objectToInt(entry.getValue()) == null)
+                continue;
+            String key = (String) entry.getKey();
+            if (Util.countChar(key, ':') != 1)
+                continue;
+
+            String[] parts = key.split(":");
+            counts.add(new SpecificItemCount(IdPattern.of(parts[0]), IdPattern.of(parts[1]), Util.objectToInt(entry.getValue())));
+        }
+        return counts;
+    }
+
+    private static Map<Integer, Object> indexFilters(Map<Object, Object> filter) {
+        Map<Integer, Object> indexFilters = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : filter.entrySet()) {
+            Integer index = Util.objectToInt(entry.getKey());
+            if (index != null)
+                indexFilters.put(index, entry.getValue());
+        }
+        return indexFilters;
+    }
+
+    private static int countIngredients(NonNullList<Ingredient> ingredients, SpecificItemCount filter) {
+        int count = 0;
+        for (Ingredient ingredient : ingredients) {
+            count += countStacks(ingredient.getItems(), filter);
+        }
+        return count;
+    }
+
+    /**
+     * @param filter only count stacks of matching items, null to count all
+     */
+    private static int countStacks(ItemStack[] stacks, SpecificItemCount filter) {
+        int count = 0;
+        for (ItemStack stack : stacks) {
+            if (filter == null || filter.matches(stack.getItem()))
+                count += stack.getCount();
+        }
+        return count;
+    }
+
+    private static ResourceLocation registryName(Item item) {
+        return Util.defaultIfNull(item.getRegistryName(), EMPTY_LOCATION);
+    }
+
+    protected static Predicate<IRecipe<?>> compileRecipeResultFilter(Map<String, Object> filterMap) {
         Object resultFilter = filterMap.get("result");
-        if(resultFilter instanceof String)
-        {
+        if (resultFilter instanceof String) {
             String resultId = (String) resultFilter;
             ResourceLocation resultLocation = new ResourceLocation(resultId);
             return recipe -> Objects.equals(recipe.getResultItem().getItem().getRegistryName(), resultLocation);
         } else if (resultFilter instanceof Map) {
-            Map<Object, Object> resultFilterMap = (Map<Object, Object>) resultFilter;
-
-            return recipe -> matchItemStack(recipe.getResultItem(), resultFilterMap);
+            @SuppressWarnings("unchecked")
+            Predicate<ItemStack> resultMatcher = compileItemStackFilter((Map<Object, Object>) resultFilter);
+            return recipe -> resultMatcher.test(recipe.getResultItem());
         }
         return recipe -> true;
     }
 
-    protected static Predicate<IRecipe<?>> assembleRecipeSimpleFilter(Map<String, Object> filterMap) {
+    protected static Predicate<IRecipe<?>> compileRecipeSimpleFilter(Map<String, Object> filterMap) {
         String recipeType = (String) filterMap.getOrDefault("type", ".*");
         String recipeGroup = (String) filterMap.getOrDefault("group", ".*");
         String modid = (String) filterMap.getOrDefault("modid", ".*");
         String recipeId = (String) filterMap.getOrDefault("recipeid", ".*");
 
-        Pattern recipeTypeRegex = Pattern.compile(recipeType);
-        Pattern recipeGroupRegex = Pattern.compile(recipeGroup);
-        Pattern modidRegex = Pattern.compile(modid);
-        Pattern recipeIdRegex = Pattern.compile(recipeId);
+        IdPattern recipeTypeRegex = IdPattern.of(recipeType);
+        IdPattern recipeGroupRegex = IdPattern.of(recipeGroup);
+        IdPattern modidRegex = IdPattern.of(modid);
+        IdPattern recipeIdRegex = IdPattern.of(recipeId);
 
         return recipe -> {
             ResourceLocation recipeLocation = recipe.getId();
-            return recipeTypeRegex.matcher(recipe.getType().toString()).matches() &&
-                    recipeGroupRegex.matcher(recipe.getGroup()).matches() &&
-                    modidRegex.matcher(recipeLocation.getNamespace()).matches() &&
-                    recipeIdRegex.matcher(recipeLocation.getPath()).matches();
+            return (recipeTypeRegex.kind == IdPattern.Kind.ALL || recipeTypeRegex.matches(recipe.getType().toString())) &&
+                    recipeGroupRegex.matches(recipe.getGroup()) &&
+                    modidRegex.matches(recipeLocation.getNamespace()) &&
+                    recipeIdRegex.matches(recipeLocation.getPath());
         };
     }
+
+    /**
+     * Exact item id, compared without building the id string of every item.
+     */
+    private static class ItemIdMatcher implements Predicate<Item> {
+        private final ResourceLocation location;
+
+        ItemIdMatcher(String id) {
+            ResourceLocation parsed = ResourceLocation.tryParse(id);
+            // ids like "stone" parse to minecraft:stone but never matched the full id string
+            this.location = parsed != null && parsed.toString().equals(id) ? parsed : null;
+        }
+
+        @Override
+        public boolean test(Item item) {
+            return location != null && location.equals(registryName(item));
+        }
+    }
+
+    /**
+     * modid and itemid both tested against the full item id, as the ingredient and item stack filters always did.
+     */
+    private static class FullIdMatcher implements Predicate<ItemStack> {
+        private final IdPattern modidRegex;
+        private final IdPattern itemidRegex;
+
+        FullIdMatcher(Map<Object, Object> filter) {
+            this.modidRegex = IdPattern.of((String) filter.getOrDefault("modid", ".*"));
+            this.itemidRegex = IdPattern.of((String) filter.getOrDefault("itemid", ".*"));
+        }
+
+        @Override
+        public boolean test(ItemStack stack) {
+            if (modidRegex.kind == IdPattern.Kind.ALL && itemidRegex.kind == IdPattern.Kind.ALL)
+                return true;
+            String id = registryName(stack.getItem()).toString();
+            return modidRegex.matches(id) && itemidRegex.matches(id);
+        }
+    }
+
+    private static class SpecificItemCount {
+        final IdPattern modidRegex;
+        final IdPattern itemidRegex;
+        final int count;
+
+        SpecificItemCount(IdPattern modidRegex, IdPattern itemidRegex, int count) {
+            this.modidRegex = modidRegex;
+            this.itemidRegex = itemidRegex;
+            this.count = count;
+        }
+
+        boolean matches(Item item) {
+            ResourceLocation location = registryName(item);
+            return modidRegex.matches(location.getNamespace()) && itemidRegex.matches(location.getPath());
+        }
+    }
 }
@@ -4,9 +4,6 @@ import dan200.computercraft.api.lua.LuaException;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
 import net.minecraft.util.ResourceLocation;
-import net.minecraftforge.fml.ModList;
-import net.minecraftforge.fml.loading.moddiscovery.ModFile;
-import net.minecraftforge.fml.loading.moddiscovery.ModFileInfo;
 import org.firedragon91245.cctresourceapi.CCT_Resource_API;
 import org.firedragon91245.cctresourceapi.entity.*;
 
@@ -18,10 +15,7 @@ import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.BiFunction;
 
@@ -29,88 +23,33 @@ public class ResourceLoading {
     @Nullable
     protected static BlockModelInfo loadBlockModelInfoByBlockId(@Nonnull ResourceLocation location) {
         BlockModelInfo modelInfo = new BlockModelInfo(location);
-        if (location.getNamespace().equals("minecraft")) {
-            String blockId = location.getPath();
-            Optional<String> stateModelJson = loadBundledFileText("bundled_resources/minecraft/blockstates/" + blockId + ".json");
-            if (stateModelJson.isPresent()) {
-                return loadStatefulBlockModelInfo(modelInfo, stateModelJson.get());
-            } else {
-                Optional<String> modelJson = loadBundledFileText("bundled_resources/minecraft/models/block/" + blockId + ".json");
-                if (modelJson.isPresent()) {
-                    BlockModel model = CCT_Resource_API.GSON.fromJson(modelJson.get(), BlockModel.class);
-                    modelInfo.statefullModel = false;
-                    modelInfo.rootModel = model;
-                    modelInfo.models.put("minecraft:block/" + blockId, model);
-
-                    modelInfo.models.putAll(getParentModelsRecursive(modelInfo));
-                    loadModelTextures(modelInfo);
-                    return modelInfo;
-                }
-                else {
-                    return null;
-                }
-            }
-
+        String namespace = location.getNamespace();
+        String path = location.getPath();
+        // multipart blockstates are not supported, both sources give no state model and the block model is used
+        BundledModelStore store = namespace.equals("minecraft") ? BundledModelStore.get() : null;
+        BlockStateModel stateModel;
+        if (store != null) {
+            stateModel = store.loadBlockState(path);
         } else {
-            File f = getModJarFromModId(location.getNamespace()).orElse(null);
-            if (f == null)
-                return null;
-
-            URL jarUrl = null;
-            try {
-                jarUrl = new URL("jar:file:" + f.getAbsolutePath() + "!/");
-            } catch (MalformedURLException ignored) {
-            }
-            if(jarUrl == null)
-                return null;
-
-            try(URLClassLoader loader = new URLClassLoader(new URL[]{ jarUrl }))
-            {
-                Optional<String> stateModelJson = loadFileText(loader, "assets/" + location.getNamespace() + "/blockstates/" + location.getPath() + ".json");
-                if (stateModelJson.isPresent()) {
-                    return loadStatefulBlockModelInfo(modelInfo, stateModelJson.get());
-                } else {
-                    Optional<String> modelJson = loadFileText(loader, "assets/" + location.getNamespace() + "/models/block/" + location.getPath() + ".json");
-                    if (modelJson.isPresent()) {
-                        BlockModel model = CCT_Resource_API.GSON.fromJson(modelJson.get(), BlockModel.class);
-                        modelInfo.statefullModel = false;
-                        modelInfo.rootModel = model;
-                        modelInfo.models.put(location.getNamespace() + ":block/" + location.getPath(), model);
-
-                        modelInfo.models.putAll(getParentModelsRecursive(modelInfo));
-                        loadModelTextures(modelInfo);
-                        return modelInfo;
-                    }
-                }
-            } catch (IOException e) {
-                CCT_Resource_API.LOGGER.error("Failed to load mod jar", e);
-            }
-
+            stateModel = loadAssetJson(namespace, "blockstates/" + path + ".json", BlockStateModel.class).orElse(null);
         }
-        return null;
-    }
+        if (stateModel != null)
+            return loadStatefulBlockModelInfo(modelInfo, stateModel);
 
-    protected static HashMap<String, BlockModel> getParentModelsRecursive(BlockModelInfo modelInfo) {
-        HashMap<String, BlockModel> newModelsCollector = new HashMap<>();
-        HashMap<String, BlockModel> newModels = new HashMap<>();
-        do {
-            newModels.clear();
-            modelInfo.models.forEach((key, value) -> {
-                if (value != null && value.parent != null) {
-                    if (modelInfo.models.containsKey(value.parent) || newModels.containsKey(value.parent) || newModelsCollector.containsKey(value.parent))
-                        return;
-                    BlockModel parentModel = loadBlockModelByLocation(value.parent);
-                    newModels.put(value.parent, parentModel);
-                }
-            });
-            newModelsCollector.putAll(newModels);
-        } while (!newModels.isEmpty());
+        ModelGraph.ModelNode<BlockModel> node = ModelGraph.BLOCKS.resolve(namespace + ":block/" + path);
+        if (node.model == null)
+            return null;
 
-        return newModelsCollector;
+        modelInfo.statefullModel = false;
+        modelInfo.rootModel = node.model;
+        modelInfo.models.put(namespace + ":block/" + path, node.model);
+        ModelGraph.BLOCKS.collectParents(node, modelInfo.models);
+
+        loadModelTextures(modelInfo);
+        return modelInfo;
     }
 
-    protected static BlockModelInfo loadStatefulBlockModelInfo(BlockModelInfo modelInfo, String stateModelJson) {
-        BlockStateModel stateModel = CCT_Resource_API.GSON.fromJson(stateModelJson, BlockStateModel.class);
+    protected static BlockModelInfo loadStatefulBlockModelInfo(BlockModelInfo modelInfo, BlockStateModel stateModel) {
         modelInfo.statefullModel = true;
         modelInfo.modelState = stateModel;
         modelInfo.modelState.variants.forEach((key, value) -> {
@@ -121,291 +60,209 @@ public class ResourceLoading {
                     {
                         if(modelInfo.models.containsKey(one.model))
                             return;
-                        BlockModel model = loadBlockModelByLocation(one.model);
-                        modelInfo.models.put(one.model, model);
+                        ModelGraph.BLOCKS.collectChain(one.model, modelInfo.models);
                     },
                     more -> {
                         for (BlockStateModelVariant variant : more) {
                             if(modelInfo.models.containsKey(variant.model))
                                 continue;
-                            BlockModel model = loadBlockModelByLocation(variant.model);
-                            modelInfo.models.put(variant.model, model);
+                            ModelGraph.BLOCKS.collectChain(variant.model, modelInfo.models);
                         }
                     });
         });
 
-        modelInfo.models.putAll(getParentModelsRecursive(modelInfo));
         loadModelTextures(modelInfo);
         return modelInfo;
     }
 
-    protected static Optional<ModelTexture> loadFileImage(ClassLoader loader, String location) {
-        try (InputStream modelStream = loader.getResourceAsStream(location)) {
-            return readInStreamImage(modelStream);
-        } catch (IOException ignored) {
-        }
-        return Optional.empty();
-    }
-
-    protected static Optional<ModelTexture> loadFileBundledImage(String location) {
-        try (InputStream modelStream = CCT_Resource_API.class.getClassLoader().getResourceAsStream(location)) {
-            return readInStreamImage(modelStream);
-        } catch (IOException ignored) {
-        }
-        return Optional.empty();
-    }
-
     protected static Optional<ModelTexture> readInStreamImage(InputStream modelStream) {
         if (modelStream == null) {
             return Optional.empty();
         }
 
-        try (ImageInputStream imageStream = ImageIO.createImageInputStream(modelStream)) {
-            Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageStream);
-            if (!imageReaders.hasNext()) {
-                return Optional.empty();
-            }
-
-            ImageReader reader = imageReaders.next();
-            reader.setInput(imageStream);
-            String formatName = reader.getFormatName();
-
-            BufferedImage image = reader.read(0, reader.getDefaultReadParam());
-
+        try {
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            ImageIO.write(image, formatName, byteArrayOutputStream);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = modelStream.read(buffer)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, read);
+            }
             byte[] imageBytes = byteArrayOutputStream.toByteArray();
 
-            ModelTexture modelTexture = new ModelTexture(formatName, image, imageBytes);
-            return Optional.of(modelTexture);
-        } catch (IOException e) {
-            CCT_Resource_API.LOGGER.error("Failed to read image", e);
-            return Optional.empty();
-        }
-    }
+            // only the header is read here, pixels are decoded on demand by the TextureStore
+            try (ImageInputStream imageStream = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+                Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageStream);
+                if (!imageReaders.hasNext()) {
+                    return Optional.empty();
+                }
 
-    @Nonnull
-    protected static Optional<String> readInStreamAll(InputStream modelStream) throws IOException {
-        if (modelStream != null) {
-            StringBuilder sb = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(modelStream))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sb.append(line);
+                ImageReader reader = imageReaders.next();
+                try {
+                    reader.setInput(imageStream);
+                    return Optional.of(new ModelTexture(reader.getFormatName(), reader.getWidth(0), reader.getHeight(0), imageBytes));
+                } finally {
+                    reader.dispose();
                 }
             }
-            return Optional.of(sb.toString());
+        } catch (IOException e) {
+            CCT_Resource_API.LOGGER.error("Failed to read image", e);
+            return Optional.empty();
         }
-        return Optional.empty();
     }
 
     private static Optional<ModelTexture> getModelTexture(String texture) {
-        if(!texture.contains(":"))
-        {
-            texture = "minecraft:" + texture;
-        }
-        if (texture.startsWith("minecraft:")) {
-            String textureId = texture.substring(10);
-            return loadFileBundledImage("bundled_resources/minecraft/textures/" + textureId + ".png");
-        } else {
-            File f = getModJarFromModId(texture.split(":")[0]).orElse(null);
-            if (f == null)
-                return Optional.empty();
-
-            URL jarUrl = null;
-            try {
-                jarUrl = new URL("jar:file:" + f.getAbsolutePath() + "!/");
-            } catch (MalformedURLException ignored) {
-            }
-
-            if(jarUrl == null)
-                return Optional.empty();
-
-            try(URLClassLoader loader = new URLClassLoader(new URL[]{ jarUrl }))
-            {
-                return loadFileImage(loader, "assets/" + texture.split(":")[0] + "/textures/" + texture.split(":")[1] + ".png");
-            } catch (IOException e) {
-                CCT_Resource_API.LOGGER.error("Failed to load mod jar", e);
-            }
-            return Optional.empty();
-        }
+        return TextureStore.getTexture(texture);
     }
 
     protected static BlockModel loadBlockModelByLocation(String model) {
-        if(!model.contains(":"))
-        {
-            model = "minecraft:" + model;
-        }
-        if (model.startsWith("minecraft:")) {
-            String modelid = model.substring(10);
-            Optional<String> modelJson = loadBundledFileText("bundled_resources/minecraft/models/" + modelid + ".json");
-            return modelJson.map(s -> CCT_Resource_API.GSON.fromJson(s, BlockModel.class)).orElse(null);
-        } else {
-            File f = getModJarFromModId(model.split(":")[0]).orElse(null);
-            if (f == null)
-                return null;
+        String[] parts = splitLocation(model);
+        BundledModelStore store = parts[0].equals("minecraft") ? BundledModelStore.get() : null;
+        if (store != null)
+            return store.loadBlockModel(parts[1]);
 
-            URL jarUrl = null;
-            try {
-                jarUrl = new URL("jar:file:" + f.getAbsolutePath() + "!/");
-            } catch (MalformedURLException ignored) {
-            }
+        return loadAssetJson(parts[0], "models/" + parts[1] + ".json", BlockModel.class).orElse(null);
+    }
 
-            if(jarUrl == null)
-                return null;
+    protected static String[] splitLocation(String location) {
+        int separator = location.indexOf(':');
+        if (separator < 0)
+            return new String[]{"minecraft", location};
+        return new String[]{location.substring(0, separator), location.substring(separator + 1)};
+    }
 
-            try(URLClassLoader loader = new URLClassLoader(new URL[]{ jarUrl }))
-            {
-                Optional<String> modelJson = loadFileText(loader, "assets/" + model.split(":")[0] + "/models/" + model.split(":")[1] + ".json");
-                return modelJson.map(s -> CCT_Resource_API.GSON.fromJson(s, BlockModel.class)).orElse(null);
-            } catch (IOException e) {
-                CCT_Resource_API.LOGGER.error("Failed to load mod jar", e);
-            }
+    @Nullable
+    protected static InputStream openAsset(String namespace, String path) throws IOException {
+        if (AssetIndex.isKnownMissing(namespace, path))
             return null;
-        }
+        if (namespace.equals("minecraft"))
+            return openBundledStream("bundled_resources/minecraft/" + path);
+        return ModJarPool.openStream(namespace, "assets/" + namespace + "/" + path);
     }
 
-    protected static Optional<File> getModJarFromModId(String modid) {
-        Optional<ModFile> file = ModList.get().getMods().stream()
-                .filter(modContainer -> modContainer.getModId().equals(modid))
-                .map(modContainer -> {
-                    ModFileInfo modFileInfo = modContainer.getOwningFile();
-                    if (modFileInfo != null) {
-                        return modFileInfo.getFile();
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .findFirst();
-
-        return file.map(ModFile::getFilePath).map(Path::toFile);
+    protected static <T> Optional<T> loadAssetJson(String namespace, String path, Class<T> type) {
+        try (InputStream jsonStream = openAsset(namespace, path)) {
+            return readInStreamJson(jsonStream, type);
+        } catch (IOException ignored) {
+        }
+        return Optional.empty();
     }
 
-    protected static Optional<String> loadBundledFileText(String location) {
-        try (InputStream modelStream = CCT_Resource_API.class.getClassLoader().getResourceAsStream(location)) {
-            return readInStreamAll(modelStream);
+    protected static Optional<ModelTexture> loadAssetImage(String namespace, String path) {
+        try (InputStream imageStream = openAsset(namespace, path)) {
+            return readInStreamImage(imageStream);
         } catch (IOException ignored) {
         }
         return Optional.empty();
     }
 
-    protected static void loadBlockModelInfo(Block b, HashMap<String, Object> blockInfo) {
+    protected static <T> Optional<T> readInStreamJson(@Nullable InputStream jsonStream, Class<T> type) {
+        if (jsonStream == null)
+            return Optional.empty();
+        return Optional.ofNullable(CCT_Resource_API.GSON.fromJson(new InputStreamReader(jsonStream, StandardCharsets.UTF_8), type));
+    }
+
+    @Nullable
+    private static InputStream openBundledStream(String location) {
+        BundledArchive archive = BundledArchive.get();
+        return archive != null ? archive.openStream(location) : null;
+    }
+
+    protected static void loadBlockModelInfo(Block b, HashMap<String, Object> blockInfo, boolean binaryImageBytes, @Nullable TextureHandles textureHandles) {
         ResourceLocation blockId = b.getRegistryName();
         if (blockId == null)
             return;
 
-        BlockModelInfo model = loadBlockModelInfoByBlockId(blockId);
+        BlockModelInfo model = ModelInfoCache.BLOCKS.computeIfAbsent(blockId, ResourceLoading::loadBlockModelInfoByBlockId);
         if (model == null)
             return;
 
-        blockInfo.put("model", model.asHashMap());
+        HashMap<String, Object> modelMap = model.asHashMap(binaryImageBytes || textureHandles != null);
+        if (textureHandles != null)
+            modelMap.put("textures", textureHandles.getHandles(model.textures));
+        blockInfo.put("model", modelMap);
     }
 
-    private static Optional<String> loadFileText(ClassLoader loader, String location) {
-        try (InputStream modelStream = loader.getResourceAsStream(location)) {
-            return readInStreamAll(modelStream);
-        } catch (IOException ignored) {
+    static <TReturn> TReturn loadBufferedImageFromTextureObject(Object image, Map<Object, Color> colorMap, BiFunction<BufferedImage, Map<Object, Color>, TReturn> consumer) throws LuaException {
+        byte[] imageBytes = imageBytesFromTextureObject(image);
+        if (imageBytes == null)
+            return null;
+
+        try {
+            BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(imageBytes));
+            if (bufferedImage == null)
+                throw new LuaException("Unsupported image format");
+            return consumer.apply(bufferedImage, colorMap);
+        } catch (IOException e) {
+            throw new LuaException("Failed to read image bytes");
         }
-        return Optional.empty();
     }
 
+    /**
+     * Accepts a texture table with imageBytes as a byte table or a binary string, or the binary string itself.
+     */
+    @Nullable
     @SuppressWarnings("unchecked")
-    static <TReturn> TReturn loadBufferedImageFromTextureObject(Object image, Map<Object, Color> colorMap, BiFunction<BufferedImage, Map<Object, Color>, TReturn> consumer) throws LuaException {
-        if (image instanceof Map) {
-            Map<String, Object> imageMap = (Map<String, Object>) image;
-            if (!imageMap.containsKey("imageBytes") || !imageMap.containsKey("formatName"))
-                return null;
+    static byte[] imageBytesFromTextureObject(Object image) {
+        if (image instanceof String)
+            return bytesFromLuaString((String) image);
+        if (!(image instanceof Map))
+            return null;
 
-            Object imageBytesObj = imageMap.get("imageBytes");
-            Object formatObj = imageMap.get("formatName");
-            if (imageBytesObj instanceof Map && formatObj instanceof String) {
-                Map<Integer, Double> imageBytes = (Map<Integer, Double>) imageBytesObj;
-                Byte[] bytes = imageBytes.entrySet().stream()
-                        .sorted(Comparator.comparingInt(Map.Entry::getKey))
-                        .map(entry -> entry.getValue().byteValue())
-                        .toArray(Byte[]::new);
-                String format = (String) formatObj;
-
-                byte[] byteArray = new byte[bytes.length];
-                for (int i = 0; i < bytes.length; i++) {
-                    byteArray[i] = bytes[i];
-                }
+        Map<String, Object> imageMap = (Map<String, Object>) image;
+        Object imageBytesObj = imageMap.get("imageBytes");
+        if (imageBytesObj instanceof String)
+            return bytesFromLuaString((String) imageBytesObj);
+        if (!(imageBytesObj instanceof Map) || !(imageMap.get("formatName") instanceof String))
+            return null;
 
-                try {
-                    BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(byteArray));
-                    return consumer.apply(bufferedImage, colorMap);
-                } catch (IOException e) {
-                    throw new LuaException("Failed to read image bytes");
-                }
-            }
+        Map<Object, Object> imageBytes = (Map<Object, Object>) imageBytesObj;
+        byte[] byteArray = new byte[imageBytes.size()];
+        for (Map.Entry<Object, Object> entry : imageBytes.entrySet()) {
+            if (!(entry.getKey() instanceof Number) || !(entry.getValue() instanceof Number))
+                return null;
+            int index = ((Number) entry.getKey()).intValue() - 1;
+            if (index < 0 || index >= byteArray.length)
+                return null;
+            byteArray[index] = ((Number) entry.getValue()).byteValue();
         }
-        return null;
+        return byteArray;
+    }
+
+    // CC hands Lua strings over with one char per byte
+    private static byte[] bytesFromLuaString(String string) {
+        byte[] bytes = new byte[string.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) string.charAt(i);
+        }
+        return bytes;
     }
 
-    public static void loadItemModelInfo(Item item, HashMap<String, Object> itemInfo) {
+    public static void loadItemModelInfo(Item item, HashMap<String, Object> itemInfo, boolean binaryImageBytes, @Nullable TextureHandles textureHandles) {
         ResourceLocation itemId = item.getRegistryName();
         if (itemId == null)
             return;
 
-        ItemModelInfo model = loadItemModelInfoByItemId(itemId);
+        ItemModelInfo model = ModelInfoCache.ITEMS.computeIfAbsent(itemId, ResourceLoading::loadItemModelInfoByItemId);
         if (model == null)
             return;
 
-        itemInfo.put("model", model.asHashMap());
-    }
-
-    private static URL getModURLFromModId(String modid)
-    {
-        File f = getModJarFromModId(modid).orElse(null);
-        if (f == null)
-            return null;
-
-        URL jarUrl = null;
-        try {
-            jarUrl = new URL("jar:file:" + f.getAbsolutePath() + "!/");
-        } catch (MalformedURLException ignored) {
-        }
-        return jarUrl;
+        Map<String, Object> modelMap = model.asHashMap(binaryImageBytes || textureHandles != null);
+        if (textureHandles != null)
+            modelMap.put("textures", textureHandles.getHandles(model.textures));
+        itemInfo.put("model", modelMap);
     }
 
     private static ItemModelInfo loadItemModelInfoByItemId(ResourceLocation itemId) {
         ItemModelInfo modelInfo = new ItemModelInfo(itemId.toString());
-        if (itemId.getNamespace().equals("minecraft")) {
-            String itemIdStr = itemId.getPath();
-            Optional<String> modelJson = loadBundledFileText("bundled_resources/minecraft/models/item/" + itemIdStr + ".json");
-            if (modelJson.isPresent()) {
-                ItemModel model = CCT_Resource_API.GSON.fromJson(modelJson.get(), ItemModel.class);
-                modelInfo.rootModel = model;
-                modelInfo.models.put("minecraft:item/" + itemIdStr, model);
-
-                modelInfo.models.putAll(getParentModelsRecursiveItem(modelInfo));
-                loadModelTextures(modelInfo);
-                return modelInfo;
-            }
-            else {
-                return null;
-            }
-        } else {
-            URL jarUrl = getModURLFromModId(itemId.getNamespace());
-            if(jarUrl == null)
-                return null;
-
-            try(URLClassLoader loader = new URLClassLoader(new URL[]{ jarUrl }))
-            {
-                Optional<String> modelJson = loadFileText(loader, "assets/" + itemId.getNamespace() + "/models/item/" + itemId.getPath() + ".json");
-                if (modelJson.isPresent()) {
-                    ItemModel model = CCT_Resource_API.GSON.fromJson(modelJson.get(), ItemModel.class);
-                    modelInfo.rootModel = model;
-                    modelInfo.models.put(itemId.getNamespace() + ":item/" + itemId.getPath(), model);
-
-                    modelInfo.models.putAll(getParentModelsRecursiveItem(modelInfo));
-                    loadModelTextures(modelInfo);
-                    return modelInfo;
-                }
-            } catch (IOException e) {
-                CCT_Resource_API.LOGGER.error("Failed to load mod jar", e);
-            }
-
+        String namespace = itemId.getNamespace();
+        ModelGraph.ModelNode<ItemModel> node = ModelGraph.ITEMS.resolve(namespace + ":item/" + itemId.getPath());
+        if (node.model != null) {
+            modelInfo.rootModel = node.model;
+            modelInfo.models.put(namespace + ":item/" + itemId.getPath(), node.model);
+            ModelGraph.ITEMS.collectParents(node, modelInfo.models);
+
+            loadModelTextures(modelInfo);
+            return modelInfo;
         }
         return null;
     }
@@ -428,47 +285,12 @@ public class ResourceLoading {
         });
     }
 
-    private static Map<String, ItemModel> getParentModelsRecursiveItem(ItemModelInfo modelInfo) {
-        HashMap<String, ItemModel> newModelsCollector = new HashMap<>();
-        HashMap<String, ItemModel> newModels = new HashMap<>();
-        do {
-            newModels.clear();
-            modelInfo.models.forEach((key, value) -> {
-                if (value != null && value.parent != null) {
-                    if (modelInfo.models.containsKey(value.parent) || newModels.containsKey(value.parent) || newModelsCollector.containsKey(value.parent))
-                        return;
-                    ItemModel parentModel = loadItemModelByLocation(value.parent);
-                    newModels.put(value.parent, parentModel);
-                }
-            });
-            newModelsCollector.putAll(newModels);
-        } while (!newModels.isEmpty());
-
-        return newModelsCollector;
-    }
+    protected static ItemModel loadItemModelByLocation(String parent) {
+        String[] parts = splitLocation(parent);
+        BundledModelStore store = parts[0].equals("minecraft") ? BundledModelStore.get() : null;
+        if (store != null)
+            return store.loadItemModel(parts[1]);
 
-    private static ItemModel loadItemModelByLocation(String parent) {
-        if(!parent.contains(":"))
-        {
-            parent = "minecraft:" + parent;
-        }
-        if (parent.startsWith("minecraft:")) {
-            String modelid = parent.substring(10);
-            Optional<String> modelJson = loadBundledFileText("bundled_resources/minecraft/models/" + modelid + ".json");
-            return modelJson.map(s -> CCT_Resource_API.GSON.fromJson(s, ItemModel.class)).orElse(null);
-        } else {
-            URL jarUrl = getModURLFromModId(parent.split(":")[0]);
-            if(jarUrl == null)
-                return null;
-
-            try(URLClassLoader loader = new URLClassLoader(new URL[]{ jarUrl }))
-            {
-                Optional<String> modelJson = loadFileText(loader, "assets/" + parent.split(":")[0] + "/models/" + parent.split(":")[1] + ".json");
-                return modelJson.map(s -> CCT_Resource_API.GSON.fromJson(s, ItemModel.class)).orElse(null);
-            } catch (IOException e) {
-                CCT_Resource_API.LOGGER.error("Failed to load mod jar", e);
-            }
-            return null;
-        }
+        return loadAssetJson(parts[0], "models/" + parts[1] + ".json", ItemModel.class).orElse(null);
     }
 }
@@ -0,0 +1,79 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.api.lua.LuaException;
+import org.firedragon91245.cctresourceapi.ImageUtil;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes textures into a computer's file system without the data passing through Lua.
+ * <ul>
+ *     <li>nfp: the paintutils image format, the same text {@code imageBytesToCCFormat} returns</li>
+ *     <li>png: the texture file as read from the resources</li>
+ * </ul>
+ */
+public class TextureExport {
+    public static long export(IWritableMount fileSystem, String path, ModelTexture texture, String format) throws LuaException {
+        try {
+            switch (format) {
+                case "nfp":
+                    return exportNfp(fileSystem, path, texture);
+                case "png":
+                    checkSpace(fileSystem, path, texture.imageBytes.length);
+                    try (WritableByteChannel channel = fileSystem.openForWrite(path)) {
+                        writeFully(channel, ByteBuffer.wrap(texture.imageBytes));
+                    }
+                    return texture.imageBytes.length;
+                default:
+                    throw new LuaException("Invalid export format");
+            }
+        } catch (IOException e) {
+            throw new LuaException("Failed to write " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static long exportNfp(IWritableMount fileSystem, String path, ModelTexture texture) throws IOException, LuaException {
+        BufferedImage image = TextureStore.getImage(texture);
+        if (image == null)
+            throw new LuaException("Failed to decode texture");
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long size = (long) width * height + Math.max(0, height - 1);
+        checkSpace(fileSystem, path, size);
+
+        int[] pixels = ImageUtil.readArgb(image);
+        ByteBuffer row = ByteBuffer.allocate(width + 1);
+        try (WritableByteChannel channel = fileSystem.openForWrite(path)) {
+            // one row at a time, the whole image never exists as a string
+            for (int y = 0; y < height; y++) {
+                row.clear();
+                for (int x = 0; x < width; x++) {
+                    row.put((byte) BlitOutput.blitChar(pixels[y * width + x]));
+                }
+                if (y < height - 1)
+                    row.put((byte) '\n');
+                row.flip();
+                writeFully(channel, row);
+            }
+        }
+        return size;
+    }
+
+    private static void checkSpace(IWritableMount fileSystem, String path, long size) throws IOException, LuaException {
+        long freed = fileSystem.exists(path) && !fileSystem.isDirectory(path) ? fileSystem.getSize(path) : 0;
+        if (size > fileSystem.getRemainingSpace() + freed)
+            throw new LuaException("Out of space");
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.LuaFunction;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lua side reference to a texture kept on the server, the image bytes only cross into Lua when asked for.
+ * <p>
+ * The conversion functions take an optional frame for animated textures. Frames start at 1 like every other
+ * index in this API, frame 1 is the top frame of the image, the frame the .mcmeta calls index 0. Without a frame
+ * the whole image is converted.
+ */
+public class TextureHandle {
+    private final TextureHandles owner;
+    final int id;
+    private final String location;
+
+    TextureHandle(TextureHandles owner, int id, String location) {
+        this.owner = owner;
+        this.id = id;
+        this.location = location;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getId() {
+        return id;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public String getLocation() {
+        return location;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public String getFormatName() throws LuaException {
+        return owner.getTexture(id).formatName;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getWidth() throws LuaException {
+        return owner.getTexture(id).width;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getHeight() throws LuaException {
+        return owner.getTexture(id).height;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public byte[] getBytes() throws LuaException {
+        return owner.getTexture(id).imageBytes;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public int getFrameCount() throws LuaException {
+        return owner.getTexture(id).getFrameCount();
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Map<String, Object> getAnimation() throws LuaException {
+        ModelTexture texture = owner.getTexture(id);
+        if (texture.animation == null)
+            return null;
+
+        HashMap<String, Object> animation = texture.animation.asHashMap();
+        animation.put("frameWidth", texture.frameWidth);
+        animation.put("frameHeight", texture.frameHeight);
+        animation.put("frameCount", texture.getFrameCount());
+        return animation;
+    }
+
+    /**
+     * @return a png of the single frame, frames start at 1
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public byte[] getFrameBytes(int frame) throws LuaException {
+        BufferedImage image = getImage(Optional.of(frame));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new LuaException("Failed to encode frame " + frame + " of " + location);
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Map<Integer, Map<Integer, Object>> toPixels(Optional<String> colorFormat, Optional<Integer> frame) throws LuaException {
+        return ResourceAPI.imageToPixels(getImage(frame), colorFormat.orElse("blit"));
+    }
+
+    /**
+     * @return pixels of {@code count} frames starting at frame {@code first} (starting at 1), keyed by position in
+     * the range starting at 1
+     */
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Map<Integer, Map<Integer, Map<Integer, Object>>> framesToPixels(int first, int count, Optional<String> colorFormat) throws LuaException {
+        int frameCount = owner.getTexture(id).getFrameCount();
+        if (first < 1 || count < 1 || count > frameCount - (first - 1))
+            throw new LuaException("Frame range out of bounds, texture has " + frameCount + " frames");
+
+        String format = colorFormat.orElse("blit");
+        Map<Integer, Map<Integer, Map<Integer, Object>>> frames = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            frames.put(i + 1, ResourceAPI.imageToPixels(getImage(Optional.of(first + i)), format));
+        }
+        return frames;
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public String toBlit(Optional<Integer> frame) throws LuaException {
+        return ResourceAPI.imageToCCString(getImage(frame));
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public Object toBlitRows(Optional<String> mode, Optional<Integer> frame) throws LuaException {
+        return BlitOutput.convert(getImage(frame), mode.orElse("rows"));
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public ConversionJob openConversion(Optional<String> colorFormat, Optional<Integer> frame) throws LuaException {
+        return new ConversionJob(getImage(frame), ResourceAPI.pixelConverter(colorFormat.orElse("blit")));
+    }
+
+    @SuppressWarnings("unused")
+    @LuaFunction
+    final public boolean release() {
+        return owner.release(id);
+    }
+
+    private BufferedImage getImage(Optional<Integer> frame) throws LuaException {
+        ModelTexture texture = owner.getTexture(id);
+        if (!frame.isPresent()) {
+            BufferedImage image = TextureStore.getImage(texture);
+            if (image == null)
+                throw new LuaException("Failed to decode texture " + location);
+            return image;
+        }
+
+        if (frame.get() < 1 || frame.get() > texture.getFrameCount())
+            throw new LuaException("Frame " + frame.get() + " out of bounds, texture has " + texture.getFrameCount() + " frames");
+        BufferedImage image = TextureStore.getFrame(texture, frame.get() - 1);
+        if (image == null)
+            throw new LuaException("Failed to decode frame " + frame.get() + " of " + location);
+        return image;
+    }
+}
@@ -0,0 +1,95 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import dan200.computercraft.api.lua.LuaException;
+import org.firedragon91245.cctresourceapi.Config;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Texture handles of one computer. A handle stays valid until it is released, has not been used for
+ * {@code textureHandleTtlSeconds} or is pushed out by {@code textureHandleMaxPerComputer}; the texture it points at
+ * stays referenced only as long as the handle is live.
+ */
+public class TextureHandles {
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<ModelTexture, TextureHandle> byTexture = new IdentityHashMap<>();
+    private int nextId = 1;
+
+    public synchronized TextureHandle getHandle(String location, ModelTexture texture) {
+        TextureHandle handle = byTexture.get(texture);
+        if (handle != null) {
+            Entry entry = entries.get(handle.id);
+            entry.lastAccess = System.currentTimeMillis();
+            return handle;
+        }
+
+        handle = new TextureHandle(this, nextId++, location);
+        entries.put(handle.id, new Entry(texture));
+        byTexture.put(texture, handle);
+
+        int maxHandles = Config.TEXTURE_HANDLE_MAX_PER_COMPUTER.get();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxHandles && iterator.hasNext()) {
+            byTexture.remove(iterator.next().texture);
+            iterator.remove();
+        }
+        return handle;
+    }
+
+    public Map<String, Object> getHandles(Map<String, ModelTexture> textures) {
+        Map<String, Object> handles = new HashMap<>();
+        for (Map.Entry<String, ModelTexture> entry : textures.entrySet()) {
+            if (entry.getValue() != null)
+                handles.put(entry.getKey(), getHandle(entry.getKey(), entry.getValue()));
+        }
+        return handles;
+    }
+
+    synchronized ModelTexture getTexture(int id) throws LuaException {
+        Entry entry = entries.get(id);
+        if (entry == null)
+            throw new LuaException("Texture handle has been released");
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.texture;
+    }
+
+    synchronized boolean release(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null)
+            return false;
+        byTexture.remove(entry.texture);
+        return true;
+    }
+
+    public synchronized void evictExpired() {
+        long expiredBefore = System.currentTimeMillis() - Config.TEXTURE_HANDLE_TTL_SECONDS.get() * 1000L;
+        Iterator<Entry> iterator = entries.values().iterator();
+        // access ordered, the oldest entries come first
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.lastAccess >= expiredBefore)
+                break;
+            byTexture.remove(entry.texture);
+            iterator.remove();
+        }
+    }
+
+    public synchronized void releaseAll() {
+        entries.clear();
+        byTexture.clear();
+    }
+
+    private static class Entry {
+        final ModelTexture texture;
+        long lastAccess = System.currentTimeMillis();
+
+        Entry(ModelTexture texture) {
+            this.texture = texture;
+        }
+    }
+}
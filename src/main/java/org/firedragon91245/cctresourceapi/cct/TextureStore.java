@@ -0,0 +1,164 @@
+package org.firedragon91245.cctresourceapi.cct;
+
+import com.google.gson.JsonParseException;
+import org.firedragon91245.cctresourceapi.CCT_Resource_API;
+import org.firedragon91245.cctresourceapi.Config;
+import org.firedragon91245.cctresourceapi.cache.LruCache;
+import org.firedragon91245.cctresourceapi.entity.ModelTexture;
+import org.firedragon91245.cctresourceapi.entity.TextureAnimation;
+import org.firedragon91245.cctresourceapi.entity.TextureMeta;
+
+import javax.annotation.Nullable;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Textures by location ({@code namespace:path} below {@code textures/}). Texture files are kept exactly as read,
+ * pixels are only decoded when asked for and kept in a separate cache with its own size limit.
+ * <p>
+ * Animated textures carry the animation from their {@code .png.mcmeta}. Single frames are decoded on their own
+ * with a source region, so asking for one frame of a long strip never holds or converts the other frames.
+ */
+public class TextureStore {
+    private static final LruCache<String, ModelTexture> TEXTURES = new LruCache<>(
+            () -> Integer.MAX_VALUE,
+            Config.TEXTURE_CACHE_MAX_BYTES::get,
+            ModelTexture::estimateSize);
+
+    // keyed by texture identity, a reloaded texture never sees the pixels of the one it replaced
+    private static final LruCache<ModelTexture, BufferedImage> DECODED = new LruCache<>(
+            () -> Integer.MAX_VALUE,
+            Config.DECODED_TEXTURE_CACHE_MAX_BYTES::get,
+            image -> (long) image.getWidth() * image.getHeight() * 4);
+
+    // single frames of animated textures whose full strip is not decoded, shares the decoded size limit
+    private static final LruCache<FrameKey, BufferedImage> FRAMES = new LruCache<>(
+            () -> Integer.MAX_VALUE,
+            Config.DECODED_TEXTURE_CACHE_MAX_BYTES::get,
+            image -> (long) image.getWidth() * image.getHeight() * 4);
+
+    public static Optional<ModelTexture> getTexture(String location) {
+        return Optional.ofNullable(TEXTURES.computeIfAbsent(ModelGraph.normalize(location), TextureStore::loadTexture));
+    }
+
+    @Nullable
+    public static BufferedImage getImage(ModelTexture texture) {
+        return DECODED.computeIfAbsent(texture, TextureStore::decode);
+    }
+
+    /**
+     * @param frame frame index as used in the .mcmeta, 0 based
+     * @return the pixels of one frame, the whole image for textures without animation, null if there is no such frame
+     */
+    @Nullable
+    public static BufferedImage getFrame(ModelTexture texture, int frame) {
+        if (texture.animation == null || texture.getFrameCount() <= 1)
+            return frame == 0 ? getImage(texture) : null;
+
+        Rectangle region = texture.getFrameRegion(frame);
+        if (region == null)
+            return null;
+
+        BufferedImage full = DECODED.get(texture);
+        if (full != null)
+            return full.getSubimage(region.x, region.y, region.width, region.height);
+        return FRAMES.computeIfAbsent(new FrameKey(texture, frame), key -> decodeRegion(texture, region));
+    }
+
+    public static void invalidateAll() {
+        TEXTURES.invalidateAll();
+        DECODED.invalidateAll();
+        FRAMES.invalidateAll();
+    }
+
+    @Nullable
+    private static ModelTexture loadTexture(String location) {
+        String[] parts = ResourceLoading.splitLocation(location);
+        String path = "textures/" + parts[1] + ".png";
+        ModelTexture texture = ResourceLoading.loadAssetImage(parts[0], path).orElse(null);
+        if (texture == null)
+            return null;
+
+        TextureAnimation animation = loadAnimation(parts[0], path + ".mcmeta");
+        return animation != null ? texture.withAnimation(animation) : texture;
+    }
+
+    @Nullable
+    private static TextureAnimation loadAnimation(String namespace, String path) {
+        try {
+            return ResourceLoading.loadAssetJson(namespace, path, TextureMeta.class)
+                    .map(meta -> meta.animation)
+                    .orElse(null);
+        } catch (JsonParseException e) {
+            CCT_Resource_API.LOGGER.warn("Invalid texture metadata " + namespace + ":" + path, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static BufferedImage decodeRegion(ModelTexture texture, Rectangle region) {
+        if (texture.imageBytes == null)
+            return null;
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(new ByteArrayInputStream(texture.imageBytes))) {
+            Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageStream);
+            if (!imageReaders.hasNext())
+                return null;
+
+            ImageReader reader = imageReaders.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            CCT_Resource_API.LOGGER.error("Failed to decode texture frame", e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static BufferedImage decode(ModelTexture texture) {
+        if (texture.imageBytes == null)
+            return null;
+        try {
+            return ImageIO.read(new ByteArrayInputStream(texture.imageBytes));
+        } catch (IOException e) {
+            CCT_Resource_API.LOGGER.error("Failed to decode texture", e);
+            return null;
+        }
+    }
+
+    private static class FrameKey {
+        final ModelTexture texture;
+        final int frame;
+
+        FrameKey(ModelTexture texture, int frame) {
+            this.texture = texture;
+            this.frame = frame;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FrameKey))
+                return false;
+            FrameKey other = (FrameKey) o;
+            return texture == other.texture && frame == other.frame;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(texture) * 31 + frame;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.firedragon91245.cctresourceapi.entity;
+
+public class AnimationFrame {
+    public int index;
+    // -1 uses the frametime of the animation
+    public int time = -1;
+
+    public AnimationFrame(int index, int time) {
+        this.index = index;
+        this.time = time;
+    }
+}
@@ -20,6 +20,10 @@ public class BlockModelInfo implements IModelInfo {
     }
 
     public HashMap<String, Object> asHashMap() {
+        return asHashMap(false);
+    }
+
+    public HashMap<String, Object> asHashMap(boolean binaryImageBytes) {
         HashMap<String, Object> map = new HashMap<>();
         map.put("statefullModel", statefullModel);
         map.put("blockId", blockId.toString());
@@ -35,7 +39,7 @@ public class BlockModelInfo implements IModelInfo {
         HashMap<String, Object> texturesMap = new HashMap<>();
         for (String key : textures.keySet()) {
             if(textures.get(key) != null)
-                texturesMap.put(key, textures.get(key).asHashMap());
+                texturesMap.put(key, textures.get(key).asHashMap(binaryImageBytes));
         }
         map.put("textures", texturesMap);
         map.put("models", modelsMap);
@@ -16,6 +16,10 @@ public class ItemModelInfo implements IModelInfo {
     }
 
     public Map<String, Object> asHashMap() {
+        return asHashMap(false);
+    }
+
+    public Map<String, Object> asHashMap(boolean binaryImageBytes) {
         Map<String, Object> result = new HashMap<>();
         if(rootModel != null)
             result.put("rootModel", rootModel.asHashMap());
@@ -28,7 +32,7 @@ public class ItemModelInfo implements IModelInfo {
         Map<String, Object> texturesMap = new HashMap<>();
         for (Map.Entry<String, ModelTexture> entry : textures.entrySet()) {
             if(entry.getValue() != null)
-                texturesMap.put(entry.getKey(), entry.getValue().asHashMap());
+                texturesMap.put(entry.getKey(), entry.getValue().asHashMap(binaryImageBytes));
         }
         result.put("textures", texturesMap);
         result.put("itemId", itemId);
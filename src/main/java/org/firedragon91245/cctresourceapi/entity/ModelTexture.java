@@ -1,18 +1,64 @@
 package org.firedragon91245.cctresourceapi.entity;
 
-import java.awt.image.BufferedImage;
+import javax.annotation.Nullable;
+import java.awt.*;
 import java.util.HashMap;
 import java.util.stream.IntStream;
 
 public class ModelTexture {
     public final String formatName;
-    public final BufferedImage image;
+    public final int width;
+    public final int height;
+    // the texture file exactly as read, decoded pixels are cached separately by the TextureStore
     public final byte[] imageBytes;
+    // from the .mcmeta next to the texture, the image is then a grid of frames
+    @Nullable
+    public final TextureAnimation animation;
+    public final int frameWidth;
+    public final int frameHeight;
 
-    public ModelTexture(String formatName, BufferedImage image, byte[] imageBytes) {
+    public ModelTexture(String formatName, int width, int height, byte[] imageBytes) {
+        this(formatName, width, height, imageBytes, null);
+    }
+
+    public ModelTexture(String formatName, int width, int height, byte[] imageBytes, @Nullable TextureAnimation animation) {
         this.formatName = formatName;
-        this.image = image;
+        this.width = width;
+        this.height = height;
         this.imageBytes = imageBytes;
+        this.animation = animation;
+        if (animation != null) {
+            int[] frameSize = animation.getFrameSize(width, height);
+            this.frameWidth = Math.max(1, Math.min(frameSize[0], width));
+            this.frameHeight = Math.max(1, Math.min(frameSize[1], height));
+        } else {
+            this.frameWidth = width;
+            this.frameHeight = height;
+        }
+    }
+
+    public ModelTexture withAnimation(@Nullable TextureAnimation animation) {
+        return new ModelTexture(formatName, width, height, imageBytes, animation);
+    }
+
+    public int getFrameCount() {
+        return (width / frameWidth) * (height / frameHeight);
+    }
+
+    /**
+     * @param frame frame index as used in the .mcmeta, 0 based
+     * @return the region of the frame in the image, null if there is no such frame
+     */
+    @Nullable
+    public Rectangle getFrameRegion(int frame) {
+        if (frame < 0 || frame >= getFrameCount())
+            return null;
+        int columns = width / frameWidth;
+        return new Rectangle((frame % columns) * frameWidth, (frame / columns) * frameHeight, frameWidth, frameHeight);
+    }
+
+    public long estimateSize() {
+        return imageBytes != null ? imageBytes.length : 0;
     }
 
     public Byte[] boxByteArray(byte[] array)
@@ -26,12 +72,30 @@ public class ModelTexture {
     }
 
     public HashMap<String, Object> asHashMap() {
+        return asHashMap(false);
+    }
+
+    /**
+     * @param binaryImageBytes put imageBytes as a byte[] (a Lua string) instead of a table of bytes
+     */
+    public HashMap<String, Object> asHashMap(boolean binaryImageBytes) {
         HashMap<String, Object> map = new HashMap<>();
         if(formatName != null)
             map.put("formatName", formatName);
-        if(image != null) {
-            map.put("imageWidth", image.getWidth());
-            map.put("imageHeight", image.getHeight());
+        if(imageBytes != null) {
+            map.put("imageWidth", width);
+            map.put("imageHeight", height);
+            if (animation != null) {
+                HashMap<String, Object> animationMap = animation.asHashMap();
+                animationMap.put("frameWidth", frameWidth);
+                animationMap.put("frameHeight", frameHeight);
+                animationMap.put("frameCount", getFrameCount());
+                map.put("animation", animationMap);
+            }
+            if (binaryImageBytes) {
+                map.put("imageBytes", imageBytes);
+                return map;
+            }
             Byte[] imageBytesArray = boxByteArray(imageBytes);
             HashMap<Integer, Byte> imageBytesMap = IntStream.range(0, imageBytesArray.length).boxed().collect(HashMap::new, (m, i) -> m.put(i + 1, imageBytesArray[i]), HashMap::putAll);
             map.put("imageBytes", imageBytesMap);
@@ -0,0 +1,44 @@
+package org.firedragon91245.cctresourceapi.entity;
+
+import java.util.HashMap;
+import java.util.List;
+
+public class TextureAnimation {
+    public int frametime = 1;
+    public boolean interpolate;
+    public Integer width;
+    public Integer height;
+    public List<AnimationFrame> frames;
+
+    /**
+     * @return {frameWidth, frameHeight} for an image of the given size, the same rules as the game uses
+     */
+    public int[] getFrameSize(int imageWidth, int imageHeight) {
+        if (width != null)
+            return new int[]{width, height != null ? height : imageHeight};
+        if (height != null)
+            return new int[]{imageWidth, height};
+        int size = Math.min(imageWidth, imageHeight);
+        return new int[]{size, size};
+    }
+
+    /**
+     * Frame indices are converted to start at 1, the same numbering the texture handle frame arguments use.
+     */
+    public HashMap<String, Object> asHashMap() {
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("frametime", frametime);
+        map.put("interpolate", interpolate);
+        if (frames != null) {
+            HashMap<Integer, Object> framesMap = new HashMap<>();
+            for (int i = 0; i < frames.size(); i++) {
+                HashMap<String, Object> frame = new HashMap<>();
+                frame.put("index", frames.get(i).index + 1);
+                frame.put("time", frames.get(i).time >= 0 ? frames.get(i).time : frametime);
+                framesMap.put(i + 1, frame);
+            }
+            map.put("frames", framesMap);
+        }
+        return map;
+    }
+}
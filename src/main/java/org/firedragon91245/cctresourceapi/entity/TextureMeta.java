@@ -0,0 +1,5 @@
+package org.firedragon91245.cctresourceapi.entity;
+
+public class TextureMeta {
+    public TextureAnimation animation;
+}
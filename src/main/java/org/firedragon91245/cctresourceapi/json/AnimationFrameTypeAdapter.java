@@ -0,0 +1,57 @@
+package org.firedragon91245.cctresourceapi.json;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.firedragon91245.cctresourceapi.entity.AnimationFrame;
+
+import java.io.IOException;
+
+public class AnimationFrameTypeAdapter extends TypeAdapter<AnimationFrame> {
+    @Override
+    public AnimationFrame read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER)
+            return new AnimationFrame(in.nextInt(), -1);
+        if (token != JsonToken.BEGIN_OBJECT)
+            throw new JsonParseException("AnimationFrame must be a number or a JsonObject");
+
+        int index = -1;
+        int time = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "index":
+                    index = in.nextInt();
+                    break;
+                case "time":
+                    time = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (index < 0)
+            throw new JsonParseException("AnimationFrame is missing an index");
+        return new AnimationFrame(index, time);
+    }
+
+    @Override
+    public void write(JsonWriter out, AnimationFrame frame) throws IOException {
+        if (frame == null) {
+            out.nullValue();
+        } else if (frame.time < 0) {
+            out.value(frame.index);
+        } else {
+            out.beginObject();
+            out.name("index").value(frame.index);
+            out.name("time").value(frame.time);
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.firedragon91245.cctresourceapi.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.firedragon91245.cctresourceapi.OneOrMore;
+import org.firedragon91245.cctresourceapi.entity.BlockStateModel;
+import org.firedragon91245.cctresourceapi.entity.BlockStateModelVariant;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class BlockStateModelTypeAdapter extends TypeAdapter<BlockStateModel> {
+    private final OneOrMoreTypeAdapter<BlockStateModelVariant> variantsAdapter =
+            new OneOrMoreTypeAdapter<>(new BlockStateModelVariantTypeAdapter());
+
+    @Override
+    public BlockStateModel read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        BlockStateModel model = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("variants") && in.peek() == JsonToken.BEGIN_OBJECT) {
+                model = new BlockStateModel();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String key = in.nextName();
+                    model.variants.put(key, variantsAdapter.read(in));
+                }
+                in.endObject();
+            } else {
+                // multipart blockstates are not supported
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return model;
+    }
+
+    @Override
+    public void write(JsonWriter out, BlockStateModel blockStateModel) throws IOException {
+        if (blockStateModel == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("variants");
+        out.beginObject();
+        for (Map.Entry<String, OneOrMore<BlockStateModelVariant>> entry : blockStateModel.variants.entrySet()) {
+            out.name(entry.getKey());
+            variantsAdapter.write(out, entry.getValue());
+        }
+        out.endObject();
+        out.endObject();
+    }
+}
@@ -0,0 +1,116 @@
+package org.firedragon91245.cctresourceapi.json;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.firedragon91245.cctresourceapi.entity.BlockStateModelVariant;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+public class BlockStateModelVariantTypeAdapter extends TypeAdapter<BlockStateModelVariant> {
+    @Override
+    public BlockStateModelVariant read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JsonParseException("BlockStateModelVariant must be a JsonObject");
+        }
+
+        BlockStateModelVariant blockStateModelVariant = new BlockStateModelVariant();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("model")) {
+                blockStateModelVariant.model = in.nextString();
+            } else {
+                // variant properties are small primitives (x, y, uvlock, weight)
+                blockStateModelVariant.properties.put(name, readElement(in));
+            }
+        }
+        in.endObject();
+
+        if (blockStateModelVariant.model == null) {
+            throw new JsonParseException("BlockStateModelVariant is missing a model");
+        }
+        return blockStateModelVariant;
+    }
+
+    @Override
+    public void write(JsonWriter out, BlockStateModelVariant blockStateModelVariant) throws IOException {
+        if (blockStateModelVariant == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("model").value(blockStateModelVariant.model);
+        for (Map.Entry<String, JsonElement> entry : blockStateModelVariant.properties.entrySet()) {
+            out.name(entry.getKey());
+            writeElement(out, entry.getValue());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads a value straight from the stream, numbers are kept as written like the bundled model store does.
+     */
+    private static JsonElement readElement(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case BOOLEAN:
+                return new JsonPrimitive(in.nextBoolean());
+            case NUMBER:
+                return new JsonPrimitive(new BigDecimal(in.nextString()));
+            case STRING:
+                return new JsonPrimitive(in.nextString());
+            case NULL:
+                in.nextNull();
+                return JsonNull.INSTANCE;
+            case BEGIN_ARRAY: {
+                JsonArray array = new JsonArray();
+                in.beginArray();
+                while (in.hasNext()) {
+                    array.add(readElement(in));
+                }
+                in.endArray();
+                return array;
+            }
+            case BEGIN_OBJECT: {
+                JsonObject object = new JsonObject();
+                in.beginObject();
+                while (in.hasNext()) {
+                    object.add(in.nextName(), readElement(in));
+                }
+                in.endObject();
+                return object;
+            }
+            default:
+                throw new JsonParseException("Unexpected " + in.peek() + " in BlockStateModelVariant");
+        }
+    }
+
+    private static void writeElement(JsonWriter out, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.nullValue();
+        } else if (element.isJsonPrimitive()) {
+            if (element.getAsJsonPrimitive().isBoolean())
+                out.value(element.getAsBoolean());
+            else if (element.getAsJsonPrimitive().isNumber())
+                out.value(element.getAsNumber());
+            else
+                out.value(element.getAsString());
+        } else if (element.isJsonArray()) {
+            out.beginArray();
+            for (JsonElement child : element.getAsJsonArray()) {
+                writeElement(out, child);
+            }
+            out.endArray();
+        } else {
+            out.beginObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                out.name(entry.getKey());
+                writeElement(out, entry.getValue());
+            }
+            out.endObject();
+        }
+    }
+}
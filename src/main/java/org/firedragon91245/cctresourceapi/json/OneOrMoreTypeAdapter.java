@@ -0,0 +1,76 @@
+package org.firedragon91245.cctresourceapi.json;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.firedragon91245.cctresourceapi.OneOrMore;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OneOrMoreTypeAdapter<T> extends TypeAdapter<OneOrMore<T>> {
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            if (typeToken.getRawType() != OneOrMore.class)
+                return null;
+
+            Type type = typeToken.getType();
+            Type elementType = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
+            return (TypeAdapter<R>) new OneOrMoreTypeAdapter(gson.getAdapter(TypeToken.get(elementType)));
+        }
+    };
+
+    private final TypeAdapter<T> elementAdapter;
+
+    public OneOrMoreTypeAdapter(TypeAdapter<T> elementAdapter) {
+        this.elementAdapter = elementAdapter;
+    }
+
+    @Override
+    public OneOrMore<T> read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            List<T> more = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                more.add(elementAdapter.read(in));
+            }
+            in.endArray();
+            return OneOrMore.fromMore(more);
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            return OneOrMore.fromOne(elementAdapter.read(in));
+        }
+        in.skipValue();
+        return null;
+    }
+
+    @Override
+    public void write(JsonWriter out, OneOrMore<T> oneOrMore) throws IOException {
+        if (oneOrMore == null) {
+            out.nullValue();
+            return;
+        }
+
+        List<T> more = new ArrayList<>();
+        List<T> one = new ArrayList<>(1);
+        oneOrMore.ifOneOrElse(one::add, more::addAll);
+        if (!one.isEmpty()) {
+            elementAdapter.write(out, one.get(0));
+        } else {
+            out.beginArray();
+            for (T element : more) {
+                elementAdapter.write(out, element);
+            }
+            out.endArray();
+        }
+    }
+}
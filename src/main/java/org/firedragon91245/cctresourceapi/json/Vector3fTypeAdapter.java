@@ -0,0 +1,68 @@
+package org.firedragon91245.cctresourceapi.json;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.minecraft.util.math.vector.Vector3f;
+
+import java.io.IOException;
+
+public class Vector3fTypeAdapter extends TypeAdapter<Vector3f> {
+    @Override
+    public Vector3f read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        float x = 0, y = 0, z = 0;
+        if (token == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            x = (float) in.nextDouble();
+            y = (float) in.nextDouble();
+            z = (float) in.nextDouble();
+            while (in.hasNext()) {
+                in.skipValue();
+            }
+            in.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "x":
+                        x = (float) in.nextDouble();
+                        break;
+                    case "y":
+                        y = (float) in.nextDouble();
+                        break;
+                    case "z":
+                        z = (float) in.nextDouble();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+        } else {
+            throw new JsonParseException("Invalid Vector3f format");
+        }
+        return new Vector3f(x, y, z);
+    }
+
+    @Override
+    public void write(JsonWriter out, Vector3f vector3f) throws IOException {
+        if (vector3f == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        out.value(vector3f.x());
+        out.value(vector3f.y());
+        out.value(vector3f.z());
+        out.endArray();
+    }
+}